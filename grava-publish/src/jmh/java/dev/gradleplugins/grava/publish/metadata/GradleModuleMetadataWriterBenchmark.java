@@ -0,0 +1,133 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Attribute.ofAttribute;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Capability.ofCapability;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Component.ofComponent;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Exclude.ofExclude;
+
+/**
+ * Measures the throughput, latency and allocation rate (see the {@literal gc} profiler) of writing and building Gradle module metadata.
+ * Run with {@code ./gradlew :grava-publish:jmh}, results are written to {@literal build/reports/jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GradleModuleMetadataWriterBenchmark {
+	@Param({"1", "10", "100", "1000", "10000"})
+	public int variantCount;
+
+	private GradleModuleMetadata metadata;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		metadata = newMetadata(variantCount);
+	}
+
+	@Benchmark
+	public void write(Blackhole blackhole) throws IOException {
+		val writer = new BlackholeWriter(blackhole);
+		new GradleModuleMetadataWriter(writer).write(metadata);
+	}
+
+	@Benchmark
+	public GradleModuleMetadata build() {
+		return newMetadata(variantCount);
+	}
+
+	@Benchmark
+	public void buildAndWrite(Blackhole blackhole) throws IOException {
+		val writer = new BlackholeWriter(blackhole);
+		new GradleModuleMetadataWriter(writer).write(newMetadata(variantCount));
+	}
+
+	// Mimics the metadata of a typical JVM library, each variant pulls a handful of dependencies and publishes a couple of files.
+	private static GradleModuleMetadata newMetadata(int variantCount) {
+		val builder = GradleModuleMetadata.builder()
+			.formatVersion("1.1")
+			.component(ofComponent("com.example", "library", "1.0.0"))
+			.createdBy(GradleModuleMetadata.CreatedBy.ofGradle("6.8.1", "sl2ss6qaqffyfnbvfpnb2yd3ky"));
+		for (int i = 0; i < variantCount; ++i) {
+			val index = i;
+			builder.localVariant(variant -> {
+				variant.name("variant" + index + "RuntimeElements")
+					.attribute(ofAttribute("org.gradle.category", "library"))
+					.attribute(ofAttribute("org.gradle.dependency.bundling", "external"))
+					.attribute(ofAttribute("org.gradle.jvm.version", 8))
+					.attribute(ofAttribute("org.gradle.libraryelements", "jar"))
+					.attribute(ofAttribute("org.gradle.usage", "java-runtime"))
+					.capability(ofCapability("com.example", "library-variant" + index, "1.0.0"));
+				for (int j = 0; j < 5; ++j) {
+					val dependencyIndex = j;
+					variant.dependency(dependency -> dependency.group("com.example.dependency")
+						.name("dependency" + dependencyIndex)
+						.version(GradleModuleMetadata.Version.requires("2." + dependencyIndex + ".0"))
+						.exclude(ofExclude("commons-logging", "commons-logging"))
+						.attribute(ofAttribute("org.gradle.category", "library")));
+				}
+				variant.dependencyConstraint(constraint -> constraint.group("com.example.dependency")
+					.module("dependency0")
+					.version(GradleModuleMetadata.Version.builder().strictly("[2.0, 3.0)").preferred("2.0.0").reject("2.0.1").build())
+					.reason("aligns the dependency family"));
+				variant.file(file -> file.name("library-variant" + index + "-1.0.0.jar")
+					.url("library-variant" + index + "-1.0.0.jar")
+					.size(123_456L + index)
+					.sha1("9b6e4b2b1d8c0b3c8f1e0f5d3c2a1b0e9f8d7c6b")
+					.md5("0f1e2d3c4b5a69788796a5b4c3d2e1f0"));
+				variant.file(file -> file.name("library-variant" + index + "-1.0.0-sources.jar")
+					.url("library-variant" + index + "-1.0.0-sources.jar")
+					.size(65_432L + index)
+					.sha1("1a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d")
+					.md5("f0e1d2c3b4a5968778695a4b3c2d1e0f"));
+			});
+		}
+		return builder.build();
+	}
+
+	// Discards the characters without letting the JIT eliminate the serialization.
+	private static final class BlackholeWriter extends Writer {
+		private final Blackhole blackhole;
+
+		private BlackholeWriter(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void write(int c) {
+			blackhole.consume(c);
+		}
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			blackhole.consume(buffer);
+			blackhole.consume(length);
+		}
+
+		@Override
+		public void write(String str, int offset, int length) {
+			blackhole.consume(str);
+			blackhole.consume(length);
+		}
+
+		@Override
+		public void flush() {}
+
+		@Override
+		public void close() {}
+	}
+}
@@ -0,0 +1,163 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Compact immutable collections frozen from the builder collections when building the model values.
+ * Empty collections are shared singletons, one and two element collections use specialized forms and larger ones are backed by a right-sized array.
+ * The collections are immutable and only reachable through final fields, so the model values can be shared across threads without defensive copies.
+ */
+final class CompactCollections {
+	// Above this size, a set falls back to hashing instead of scanning its elements
+	private static final int MAXIMUM_ARRAY_SET_SIZE = 8;
+
+	private CompactCollections() {}
+
+	/**
+	 * Returns an immutable copy of the specified elements, in iteration order.
+	 *
+	 * @param values  the elements to copy, must not be null
+	 * @param <T>  the element type
+	 * @return an immutable list, never null
+	 */
+	static <T> List<T> copyOfList(Collection<? extends T> values) {
+		switch (values.size()) {
+			case 0:
+				return Collections.emptyList();
+			case 1:
+				return Collections.singletonList(values.iterator().next());
+			case 2:
+				Iterator<? extends T> iter = values.iterator();
+				return new TwoElementList<>(iter.next(), iter.next());
+			default:
+				return new ArrayBackedList<>(values.toArray());
+		}
+	}
+
+	/**
+	 * Returns an immutable copy of the specified distinct elements, in iteration order.
+	 *
+	 * @param values  the distinct elements to copy, must not be null
+	 * @param <T>  the element type
+	 * @return an immutable set, never null
+	 */
+	static <T> Set<T> copyOfSet(Set<? extends T> values) {
+		switch (values.size()) {
+			case 0:
+				return Collections.emptySet();
+			case 1:
+				return Collections.singleton(values.iterator().next());
+			default:
+				if (values.size() > MAXIMUM_ARRAY_SET_SIZE) {
+					return Collections.unmodifiableSet(new LinkedHashSet<>(values));
+				}
+				return new ArrayBackedSet<>(values.toArray());
+		}
+	}
+
+	private static final class TwoElementList<T> extends AbstractList<T> implements RandomAccess {
+		private final T first;
+		private final T second;
+
+		private TwoElementList(T first, T second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public T get(int index) {
+			switch (index) {
+				case 0:
+					return first;
+				case 1:
+					return second;
+				default:
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: 2");
+			}
+		}
+
+		@Override
+		public int size() {
+			return 2;
+		}
+	}
+
+	private static final class ArrayBackedList<T> extends AbstractList<T> implements RandomAccess {
+		private final Object[] elements;
+
+		private ArrayBackedList(Object[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T get(int index) {
+			return (T) elements[index];
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+	}
+
+	private static final class ArrayBackedSet<T> extends AbstractSet<T> {
+		private final Object[] elements;
+
+		private ArrayBackedSet(Object[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			for (Object element : elements) {
+				if (Objects.equals(element, o)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < elements.length;
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public T next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return (T) elements[index++];
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.stream(elements).mapToInt(Objects::hashCode).sum();
+		}
+	}
+}
@@ -0,0 +1,348 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persistent cache of file checksums, keyed by the file path and validated against the file size, last modified time and file key (i.e. inode).
+ * An unchanged file is never hashed twice, even across builds.
+ *
+ * The cache keeps the most recently used entries up to a maximum.
+ * It is safe to use concurrently, from multiple threads and processes.
+ * The new entries of each lookup are appended to the cache file in a single write.
+ * Once the cache file holds twice the maximum entries, counting the entries appended by every process, it's compacted to the most recent entries and replaced atomically.
+ * An entry truncated by a crash while appending is ignored.
+ */
+public final class FileChecksumCache {
+	private static final String HEADER = "# grava file checksums v1";
+	private static final int DEFAULT_MAXIMUM_ENTRIES = 10_000;
+	private static final ConcurrentMap<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+	private final Path cacheFile;
+	private final Path lockFile;
+	private final int maximumEntries;
+	private final LinkedHashMap<String, Entry> entries;
+	private int persistedEntryCount = 0;
+	private long persistedSize = -1;
+
+	private FileChecksumCache(Path cacheFile, int maximumEntries) {
+		this.cacheFile = cacheFile;
+		this.lockFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".lock");
+		this.maximumEntries = maximumEntries;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > FileChecksumCache.this.maximumEntries;
+			}
+		};
+	}
+
+	/**
+	 * Opens the checksum cache persisted in the specified file, keeping up to 10,000 entries.
+	 *
+	 * @param cacheFile  the cache file, created when missing, must not be null
+	 * @return a checksum cache, never null
+	 * @throws IOException if an I/O error occurs while reading the cache
+	 */
+	public static FileChecksumCache of(Path cacheFile) throws IOException {
+		return of(cacheFile, DEFAULT_MAXIMUM_ENTRIES);
+	}
+
+	/**
+	 * Opens the checksum cache persisted in the specified file.
+	 *
+	 * @param cacheFile  the cache file, created when missing, must not be null
+	 * @param maximumEntries  the maximum number of entries to keep, must be positive
+	 * @return a checksum cache, never null
+	 * @throws IOException if an I/O error occurs while reading the cache
+	 */
+	public static FileChecksumCache of(Path cacheFile, int maximumEntries) throws IOException {
+		if (maximumEntries < 1) {
+			throw new IllegalArgumentException("Maximum entries must be positive.");
+		}
+		val result = new FileChecksumCache(cacheFile.toAbsolutePath().normalize(), maximumEntries);
+		result.load();
+		return result;
+	}
+
+	/**
+	 * Returns the checksums of the specified file, hashing the file only when it's missing from the cache or changed since.
+	 *
+	 * @param file  the file to hash, must not be null
+	 * @return the file checksums, never null
+	 * @throws IOException if an I/O error occurs
+	 */
+	FileChecksums get(Path file) throws IOException {
+		return getAll(Collections.singletonList(file)).get(0);
+	}
+
+	/**
+	 * Returns the checksums of the specified files, the files missing from the cache or changed since are hashed in parallel.
+	 *
+	 * @param files  the files to hash, must not be null
+	 * @return the checksums in the order of the specified files, never null
+	 * @throws IOException if an I/O error occurs
+	 */
+	List<FileChecksums> getAll(Collection<? extends Path> files) throws IOException {
+		val result = new ArrayList<FileChecksums>(files.size());
+		val missingFiles = new ArrayList<Path>();
+		val missingAttributes = new ArrayList<BasicFileAttributes>();
+		val missingIndices = new ArrayList<Integer>();
+		for (Path file : files) {
+			val attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			FileChecksums checksums = null;
+			synchronized (this) {
+				val entry = entries.get(keyOf(file));
+				if (entry != null && entry.matches(attributes)) {
+					checksums = entry.checksums;
+				}
+			}
+			if (checksums == null) {
+				missingIndices.add(result.size());
+				missingFiles.add(file);
+				missingAttributes.add(attributes);
+			}
+			result.add(checksums);
+		}
+
+		if (!missingFiles.isEmpty()) {
+			val checksums = FileChecksums.ofAll(missingFiles);
+			val newEntries = new LinkedHashMap<String, Entry>();
+			for (int i = 0; i < missingFiles.size(); ++i) {
+				result.set(missingIndices.get(i), checksums.get(i));
+
+				// Only cache the checksums if the file didn't change while hashing it
+				val entry = Entry.of(missingAttributes.get(i), checksums.get(i));
+				if (entry.matches(Files.readAttributes(missingFiles.get(i), BasicFileAttributes.class))) {
+					newEntries.put(keyOf(missingFiles.get(i)), entry);
+				}
+			}
+			synchronized (this) {
+				entries.putAll(newEntries);
+			}
+			persist(newEntries);
+		}
+		return result;
+	}
+
+	private static String keyOf(Path file) {
+		return file.toAbsolutePath().normalize().toUri().toString();
+	}
+
+	private static Object processLock(Path cacheFile) {
+		return PROCESS_LOCKS.computeIfAbsent(cacheFile, it -> new Object());
+	}
+
+	private void load() throws IOException {
+		synchronized (processLock(cacheFile)) {
+			Files.createDirectories(cacheFile.getParent());
+			try (val channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				channel.lock(); // released when the channel closes
+				val persistedEntries = readEntries(cacheFile);
+				persistedEntryCount = countEntries(cacheFile);
+				persistedSize = sizeOf(cacheFile);
+				synchronized (this) {
+					entries.putAll(persistedEntries);
+				}
+			}
+		}
+	}
+
+	// Only the new entries are promoted to the most recently used end, the entries of other processes keep their order
+	private void persist(Map<String, Entry> newEntries) throws IOException {
+		if (newEntries.isEmpty()) {
+			return;
+		}
+
+		synchronized (processLock(cacheFile)) {
+			try (val channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				channel.lock(); // released when the channel closes
+
+				// Other processes appended to, or compacted, the cache file since our last write
+				val size = sizeOf(cacheFile);
+				if (size != persistedSize) {
+					persistedEntryCount = countEntries(cacheFile);
+					persistedSize = size;
+				}
+
+				if (!hasHeader(cacheFile) || persistedEntryCount + newEntries.size() > 2 * maximumEntries) {
+					compact(newEntries);
+				} else {
+					append(newEntries);
+				}
+			}
+		}
+	}
+
+	private void append(Map<String, Entry> newEntries) throws IOException {
+		val lines = new ArrayList<String>(newEntries.size());
+		for (Map.Entry<String, Entry> entry : newEntries.entrySet()) {
+			lines.add(format(entry));
+		}
+		Files.write(cacheFile, lines, UTF_8, StandardOpenOption.APPEND);
+		persistedEntryCount += newEntries.size();
+		persistedSize = sizeOf(cacheFile);
+	}
+
+	private void compact(Map<String, Entry> newEntries) throws IOException {
+		val mergedEntries = readEntries(cacheFile);
+		for (Map.Entry<String, Entry> entry : newEntries.entrySet()) {
+			mergedEntries.remove(entry.getKey());
+			mergedEntries.put(entry.getKey(), entry.getValue());
+		}
+
+		val lines = new ArrayList<String>(Math.min(mergedEntries.size(), maximumEntries) + 1);
+		lines.add(HEADER);
+		val iter = mergedEntries.entrySet().iterator();
+		for (int remaining = mergedEntries.size(); iter.hasNext(); --remaining) {
+			val entry = iter.next();
+			if (remaining <= maximumEntries) {
+				lines.add(format(entry));
+			}
+		}
+
+		val temporaryFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temporaryFile, lines, UTF_8);
+			Files.move(temporaryFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+		persistedEntryCount = lines.size() - 1;
+		persistedSize = sizeOf(cacheFile);
+	}
+
+	private static String format(Map.Entry<String, Entry> entry) {
+		return entry.getKey() + "\t" + entry.getValue().format();
+	}
+
+	private static boolean hasHeader(Path cacheFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(cacheFile, UTF_8)) {
+			return HEADER.equals(reader.readLine());
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+	}
+
+	private static long sizeOf(Path cacheFile) throws IOException {
+		try {
+			return Files.size(cacheFile);
+		} catch (NoSuchFileException e) {
+			return -1;
+		}
+	}
+
+	// Counts the lines following the header, including unreadable entries as they also grow the cache file
+	private static int countEntries(Path cacheFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(cacheFile, UTF_8)) {
+			int result = -1;
+			while (reader.readLine() != null) {
+				++result;
+			}
+			return Math.max(result, 0);
+		} catch (NoSuchFileException e) {
+			return 0;
+		}
+	}
+
+	// Unreadable entries, i.e. from another cache version, are ignored, later entries replace earlier ones of the same file
+	private static LinkedHashMap<String, Entry> readEntries(Path cacheFile) throws IOException {
+		val result = new LinkedHashMap<String, Entry>();
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(cacheFile, UTF_8);
+		} catch (NoSuchFileException e) {
+			return result;
+		}
+
+		Iterator<String> iter = lines.iterator();
+		if (!iter.hasNext() || !iter.next().equals(HEADER)) {
+			return result;
+		}
+		while (iter.hasNext()) {
+			val values = iter.next().split("\t", -1);
+			if (values.length == 8) {
+				try {
+					val entry = Entry.parse(values);
+					result.remove(values[0]);
+					result.put(values[0], entry);
+				} catch (IllegalArgumentException e) {
+					// ignores corrupted entry
+				}
+			}
+		}
+		return result;
+	}
+
+	private static final class Entry {
+		private final long size;
+		private final long lastModified;
+		@Nullable private final String fileKey;
+		private final FileChecksums checksums;
+
+		private Entry(long size, long lastModified, @Nullable String fileKey, FileChecksums checksums) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.fileKey = fileKey;
+			this.checksums = checksums;
+		}
+
+		static Entry of(BasicFileAttributes attributes, FileChecksums checksums) {
+			return new Entry(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), fileKeyOf(attributes), checksums);
+		}
+
+		static Entry parse(String[] values) {
+			// A crash while appending can leave a truncated entry behind
+			if (values[4].length() != 128 || values[5].length() != 64 || values[6].length() != 40 || values[7].length() != 32) {
+				throw new IllegalArgumentException("Truncated checksums.");
+			}
+			val fileKey = values[3].isEmpty() ? null : values[3];
+			val size = Long.parseLong(values[1]);
+			return new Entry(size, Long.parseLong(values[2]), fileKey, new FileChecksums(size, values[4], values[5], values[6], values[7]));
+		}
+
+		// File keys aren't supported on all platforms, i.e. Windows
+		@Nullable
+		private static String fileKeyOf(BasicFileAttributes attributes) {
+			val result = attributes.fileKey();
+			if (result == null) {
+				return null;
+			}
+			return result.toString();
+		}
+
+		boolean matches(BasicFileAttributes attributes) {
+			return size == attributes.size()
+				&& lastModified == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+				&& Objects.equals(fileKey, fileKeyOf(attributes));
+		}
+
+		String format() {
+			return size + "\t" + lastModified + "\t" + (fileKey == null ? "" : fileKey) + "\t" + checksums.getSha512() + "\t" + checksums.getSha256() + "\t" + checksums.getSha1() + "\t" + checksums.getMd5();
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Size and checksums of a file, as published in Gradle module metadata.
+ * All checksums are computed in a single pass over the file, each chunk read updating every digest.
+ */
+final class FileChecksums {
+	static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+	// Shared by every call instead of starting new threads each time, idle workers terminate on their own
+	private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private final long size;
+	private final String sha512;
+	private final String sha256;
+	private final String sha1;
+	private final String md5;
+
+	FileChecksums(long size, String sha512, String sha256, String sha1, String md5) {
+		this.size = size;
+		this.sha512 = sha512;
+		this.sha256 = sha256;
+		this.sha1 = sha1;
+		this.md5 = md5;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public String getSha512() {
+		return sha512;
+	}
+
+	public String getSha256() {
+		return sha256;
+	}
+
+	public String getSha1() {
+		return sha1;
+	}
+
+	public String getMd5() {
+		return md5;
+	}
+
+	GradleModuleMetadata.File toFile(Path file) {
+		val name = file.getFileName().toString();
+		return GradleModuleMetadata.File.builder()
+			.name(name)
+			.url(name)
+			.size(size)
+			.sha512(sha512)
+			.sha256(sha256)
+			.sha1(sha1)
+			.md5(md5)
+			.build();
+	}
+
+	static FileChecksums of(Path file) throws IOException {
+		return of(file, DEFAULT_CHUNK_SIZE);
+	}
+
+	static FileChecksums of(Path file, int chunkSize) throws IOException {
+		val sha512 = newDigest("SHA-512");
+		val sha256 = newDigest("SHA-256");
+		val sha1 = newDigest("SHA-1");
+		val md5 = newDigest("MD5");
+		try (InputStream inStream = Files.newInputStream(file)) {
+			val chunk = new byte[chunkSize];
+			long size = 0;
+			int length;
+			while ((length = inStream.read(chunk)) != -1) {
+				sha512.update(chunk, 0, length);
+				sha256.update(chunk, 0, length);
+				sha1.update(chunk, 0, length);
+				md5.update(chunk, 0, length);
+				size += length;
+			}
+			return new FileChecksums(size, toHex(sha512.digest()), toHex(sha256.digest()), toHex(sha1.digest()), toHex(md5.digest()));
+		}
+	}
+
+	/**
+	 * Computes the checksums of the specified files in parallel on a fork-join pool shared by every call.
+	 *
+	 * @param files  the files to hash, must not be null
+	 * @return the checksums in the order of the specified files, never null
+	 * @throws IOException if an I/O error occurs while reading any of the files
+	 */
+	static List<FileChecksums> ofAll(Collection<? extends Path> files) throws IOException {
+		if (files.size() <= 1) {
+			val result = new ArrayList<FileChecksums>(files.size());
+			for (Path file : files) {
+				result.add(of(file));
+			}
+			return result;
+		}
+
+		val tasks = new ArrayList<Callable<FileChecksums>>(files.size());
+		for (Path file : files) {
+			tasks.add(() -> {
+				try {
+					return of(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+
+		try {
+			val result = new ArrayList<FileChecksums>(files.size());
+			for (Future<FileChecksums> future : POOL.invokeAll(tasks)) {
+				result.add(future.get());
+			}
+			return result;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while computing file checksums.", e);
+		}
+	}
+
+	private static MessageDigest newDigest(String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			// All algorithms are available on every supported Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		val result = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; ++i) {
+			result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+			result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+		}
+		return new String(result);
+	}
+}
@@ -4,14 +4,19 @@ import com.google.gson.annotations.SerializedName;
 import lombok.*;
 
 import javax.annotation.Nullable;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Consumer;
 
+import static dev.gradleplugins.grava.publish.metadata.CompactCollections.copyOfList;
+import static dev.gradleplugins.grava.publish.metadata.CompactCollections.copyOfSet;
 import static java.util.Objects.requireNonNull;
 
 @Value
@@ -43,7 +48,7 @@ public class GradleModuleMetadata {
 	}
 
 	@Value
-	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	@AllArgsConstructor(access = AccessLevel.PACKAGE)
 	public static class CreatedBy {
 		@Nullable Gradle gradle;
 
@@ -75,10 +80,15 @@ public class GradleModuleMetadata {
 		List<File> files;
 
 		public static Builder builder() {
-			return new Builder();
+			return new Builder(ValueInterner.none());
+		}
+
+		static Builder builder(ValueInterner interner) {
+			return new Builder(interner);
 		}
 
 		public static final class Builder {
+			private final ValueInterner interner;
 			private String name;
 			private final List<Attribute> attributes = new ArrayList<>();
 			private final List<Capability> capabilities = new ArrayList<>();
@@ -86,18 +96,22 @@ public class GradleModuleMetadata {
 			private final List<DependencyConstraint> dependencyConstraints = new ArrayList<>();
 			private final List<File> files = new ArrayList<>();
 
+			private Builder(ValueInterner interner) {
+				this.interner = interner;
+			}
+
 			public Builder name(String name) {
 				this.name = name;
 				return this;
 			}
 
 			public Builder attribute(Attribute attribute) {
-				this.attributes.add(attribute);
+				this.attributes.add(interner.intern(attribute));
 				return this;
 			}
 
 			public Builder capability(Capability capability) {
-				this.capabilities.add(capability);
+				this.capabilities.add(interner.intern(capability));
 				return this;
 			}
 
@@ -107,7 +121,7 @@ public class GradleModuleMetadata {
 			}
 
 			public Builder dependency(Consumer<? super Dependency.Builder> builderConsumer) {
-				val builder = Dependency.builder();
+				val builder = Dependency.builder(interner);
 				builderConsumer.accept(builder);
 				return dependency(builder.build());
 			}
@@ -118,7 +132,7 @@ public class GradleModuleMetadata {
 			}
 
 			public Builder dependencyConstraint(Consumer<? super DependencyConstraint.Builder> builderConsumer) {
-				val builder = DependencyConstraint.builder();
+				val builder = DependencyConstraint.builder(interner);
 				builderConsumer.accept(builder);
 				return dependencyConstraint(builder.build());
 			}
@@ -135,7 +149,7 @@ public class GradleModuleMetadata {
 			}
 
 			public LocalVariant build() {
-				return new LocalVariant(name, attributes, capabilities, dependencies, dependencyConstraints, files);
+				return new LocalVariant(name, copyOfList(attributes), copyOfList(capabilities), copyOfList(dependencies), copyOfList(dependencyConstraints), copyOfList(files));
 			}
 		}
 	}
@@ -150,22 +164,31 @@ public class GradleModuleMetadata {
 		List<Capability> capabilities;
 
 		public static Builder builder() {
-			return new Builder();
+			return new Builder(ValueInterner.none());
+		}
+
+		static Builder builder(ValueInterner interner) {
+			return new Builder(interner);
 		}
 
 		public static final class Builder {
+			private final ValueInterner interner;
 			private String name;
 			private final List<Attribute> attributes = new ArrayList<>();
 			private AvailableAt availableAt;
 			private final List<Capability> capabilities = new ArrayList<>();
 
+			private Builder(ValueInterner interner) {
+				this.interner = interner;
+			}
+
 			public Builder name(String name) {
 				this.name = name;
 				return this;
 			}
 
 			public Builder attribute(Attribute attribute) {
-				this.attributes.add(attribute);
+				this.attributes.add(interner.intern(attribute));
 				return this;
 			}
 
@@ -181,12 +204,12 @@ public class GradleModuleMetadata {
 			}
 
 			public Builder capability(Capability capability) {
-				this.capabilities.add(capability);
+				this.capabilities.add(interner.intern(capability));
 				return this;
 			}
 
 			public RemoteVariant build() {
-				return new RemoteVariant(name, attributes, availableAt, capabilities);
+				return new RemoteVariant(name, copyOfList(attributes), availableAt, copyOfList(capabilities));
 			}
 		}
 	}
@@ -211,18 +234,27 @@ public class GradleModuleMetadata {
 		}
 
 		public static Builder builder() {
-			return new Builder();
+			return new Builder(ValueInterner.none());
+		}
+
+		static Builder builder(ValueInterner interner) {
+			return new Builder(interner);
 		}
 
 		public static final class Builder {
+			private final ValueInterner interner;
 			private String group;
 			private String name;
 			private Version version;
-			private final Set<Exclude> excludes = new HashSet<>();
+			private final Set<Exclude> excludes = new LinkedHashSet<>();
 			private String reason;
 			private final List<Attribute> attributes = new ArrayList<>();
 			private final List<Capability> requestedCapabilities = new ArrayList<>();
 
+			private Builder(ValueInterner interner) {
+				this.interner = interner;
+			}
+
 			public Builder group(String group) {
 				this.group = group;
 				return this;
@@ -239,7 +271,7 @@ public class GradleModuleMetadata {
 			}
 
 			public Builder exclude(Exclude exclude) {
-				this.excludes.add(exclude);
+				this.excludes.add(interner.intern(exclude));
 				return this;
 			}
 
@@ -249,17 +281,17 @@ public class GradleModuleMetadata {
 			}
 
 			public Builder attribute(Attribute attribute) {
-				this.attributes.add(attribute);
+				this.attributes.add(interner.intern(attribute));
 				return this;
 			}
 
 			public Builder requestedCapability(Capability capability) {
-				this.requestedCapabilities.add(capability);
+				this.requestedCapabilities.add(interner.intern(capability));
 				return this;
 			}
 
 			public Dependency build() {
-				return new Dependency(group, name, version, excludes, reason, attributes, requestedCapabilities);
+				return new Dependency(group, name, version, copyOfSet(excludes), reason, copyOfList(attributes), copyOfList(requestedCapabilities));
 			}
 		}
 	}
@@ -379,7 +411,7 @@ public class GradleModuleMetadata {
 			}
 
 			public Version build() {
-				return new Version(requires, strictly, preferred, rejects);
+				return new Version(requires, strictly, preferred, copyOfList(rejects));
 			}
 		}
 	}
@@ -398,16 +430,25 @@ public class GradleModuleMetadata {
 		}
 
 		public static Builder builder() {
-			return new Builder();
+			return new Builder(ValueInterner.none());
+		}
+
+		static Builder builder(ValueInterner interner) {
+			return new Builder(interner);
 		}
 
 		public static final class Builder {
+			private final ValueInterner interner;
 			private String group;
 			private String module;
 			private Version version;
 			private final List<Attribute> attributes = new ArrayList<>();
 			private String reason;
 
+			private Builder(ValueInterner interner) {
+				this.interner = interner;
+			}
+
 			public Builder group(String group) {
 				this.group = group;
 				return this;
@@ -424,7 +465,7 @@ public class GradleModuleMetadata {
 			}
 
 			public Builder attribute(Attribute attribute) {
-				this.attributes.add(attribute);
+				this.attributes.add(interner.intern(attribute));
 				return this;
 			}
 
@@ -434,7 +475,7 @@ public class GradleModuleMetadata {
 			}
 
 			public DependencyConstraint build() {
-				return new DependencyConstraint(group, module, version, attributes, reason);
+				return new DependencyConstraint(group, module, version, copyOfList(attributes), reason);
 			}
 		}
 	}
@@ -446,9 +487,69 @@ public class GradleModuleMetadata {
 		String name;
 		String url;
 		long size;
+		@Nullable String sha512;
+		@Nullable String sha256;
 		String sha1;
 		String md5;
 
+		/**
+		 * Creates a file entry for the specified file, named after the file and with its size and checksums computed in a single pass.
+		 *
+		 * @param file  the file to describe, must not be null
+		 * @return a file entry, never null
+		 * @throws IOException if an I/O error occurs while reading the file
+		 */
+		public static File ofFile(Path file) throws IOException {
+			return FileChecksums.of(file).toFile(file);
+		}
+
+		/**
+		 * Creates a file entry for each specified file, the files are hashed in parallel.
+		 *
+		 * @param files  the files to describe, must not be null
+		 * @return the file entries in the order of the specified files, never null
+		 * @throws IOException if an I/O error occurs while reading any of the files
+		 * @see #ofFile(Path)
+		 */
+		public static List<File> ofFiles(Collection<? extends Path> files) throws IOException {
+			return toFiles(files, FileChecksums.ofAll(files));
+		}
+
+		/**
+		 * Creates a file entry for the specified file, reusing the cached checksums when the file is unchanged.
+		 *
+		 * @param file  the file to describe, must not be null
+		 * @param cache  the checksum cache to consult, must not be null
+		 * @return a file entry, never null
+		 * @throws IOException if an I/O error occurs while reading the file or the cache
+		 * @see #ofFile(Path)
+		 */
+		public static File ofFile(Path file, FileChecksumCache cache) throws IOException {
+			return cache.get(file).toFile(file);
+		}
+
+		/**
+		 * Creates a file entry for each specified file, reusing the cached checksums of unchanged files and hashing the others in parallel.
+		 *
+		 * @param files  the files to describe, must not be null
+		 * @param cache  the checksum cache to consult, must not be null
+		 * @return the file entries in the order of the specified files, never null
+		 * @throws IOException if an I/O error occurs while reading any of the files or the cache
+		 * @see #ofFiles(Collection)
+		 */
+		public static List<File> ofFiles(Collection<? extends Path> files, FileChecksumCache cache) throws IOException {
+			return toFiles(files, cache.getAll(files));
+		}
+
+		private static List<File> toFiles(Collection<? extends Path> files, List<FileChecksums> checksums) {
+			val result = new ArrayList<File>(files.size());
+			val iter = checksums.iterator();
+			for (Path file : files) {
+				result.add(iter.next().toFile(file));
+			}
+			return result;
+		}
+
 		public static Builder builder() {
 			return new Builder();
 		}
@@ -457,6 +558,8 @@ public class GradleModuleMetadata {
 			private String name;
 			private String url;
 			private long sizeInByte;
+			private String sha512;
+			private String sha256;
 			private String sha1;
 			private String md5;
 
@@ -475,6 +578,16 @@ public class GradleModuleMetadata {
 				return this;
 			}
 
+			public Builder sha512(String sha512) {
+				this.sha512 = sha512;
+				return this;
+			}
+
+			public Builder sha256(String sha256) {
+				this.sha256 = sha256;
+				return this;
+			}
+
 			public Builder sha1(String sha1) {
 				this.sha1 = sha1;
 				return this;
@@ -486,7 +599,7 @@ public class GradleModuleMetadata {
 			}
 
 			public File build() {
-				return new File(name, url, sizeInByte, sha1, md5);
+				return new File(name, url, sizeInByte, sha512, sha256, sha1, md5);
 			}
 		}
 	}
@@ -544,6 +657,8 @@ public class GradleModuleMetadata {
 		private Component component;
 		private CreatedBy createdBy;
 		private final List<Variant> variants = new ArrayList<>();
+		// Pools the attributes, capabilities and excludes of all variants built through this builder
+		private final ValueInterner interner = new ValueInterner();
 
 		public Builder formatVersion(String formatVersion) {
 			this.formatVersion = formatVersion;
@@ -566,24 +681,28 @@ public class GradleModuleMetadata {
 		}
 
 		public Builder localVariant(Consumer<? super LocalVariant.Builder> builderConsumer) {
-			val builder = LocalVariant.builder();
+			val builder = LocalVariant.builder(interner);
 			builderConsumer.accept(builder);
 			return variant(builder.build());
 		}
 
 		public Builder remoteVariant(Consumer<? super RemoteVariant.Builder> builderConsumer) {
-			val builder = RemoteVariant.builder();
+			val builder = RemoteVariant.builder(interner);
 			builderConsumer.accept(builder);
 			return variant(builder.build());
 		}
 
 		public GradleModuleMetadata build() {
-			return new GradleModuleMetadata(formatVersion, component, createdBy, variants);
+			return new GradleModuleMetadata(formatVersion, component, createdBy, copyOfList(variants));
 		}
 	}
 
 	public static GradleModuleMetadataWriter newWriter(java.io.File file) throws FileNotFoundException {
-		return new GradleModuleMetadataWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+		return newWriter(file, GradleModuleMetadataWriter.Format.Pretty);
+	}
+
+	public static GradleModuleMetadataWriter newWriter(java.io.File file, GradleModuleMetadataWriter.Format format) throws FileNotFoundException {
+		return new GradleModuleMetadataWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), format);
 	}
 
 	public static void withWriter(java.io.File file, Consumer<? super GradleModuleMetadataWriter> action) throws IOException {
@@ -591,5 +710,25 @@ public class GradleModuleMetadata {
 			action.accept(writer);
 		}
 	}
-}
 
+	/**
+	 * Writes the metadata to the specified file, leaving the file untouched when it already has the exact same content.
+	 * Unchanged files keep their timestamp, which avoids invalidating up-to-date checks and waking file-system watchers.
+	 *
+	 * @param file  the file to write, must not be null
+	 * @param action  the action writing the metadata, must not be null
+	 * @return {@code true} if the file was written or {@code false} if it was already up-to-date
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static boolean withIncrementalWriter(java.io.File file, Consumer<? super GradleModuleMetadataWriter> action) throws IOException {
+		return withIncrementalWriter(file, GradleModuleMetadataWriter.Format.Pretty, action);
+	}
+
+	public static boolean withIncrementalWriter(java.io.File file, GradleModuleMetadataWriter.Format format, Consumer<? super GradleModuleMetadataWriter> action) throws IOException {
+		return IncrementalFileWriter.write(file.toPath(), format, action);
+	}
+
+	public static GradleModuleMetadataReader newReader(java.io.File file) throws FileNotFoundException {
+		return new GradleModuleMetadataReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+	}
+}
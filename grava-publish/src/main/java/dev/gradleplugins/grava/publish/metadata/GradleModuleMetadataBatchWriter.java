@@ -0,0 +1,154 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.Value;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the metadata of many components at once.
+ * The files are serialized in parallel, each worker thread reusing its own buffer across batches, and only written when their content changed.
+ * Failures don't stop the batch, they are reported together with the timing of each file.
+ *
+ * <pre>
+ * val result = new GradleModuleMetadataBatchWriter().writeAll(entries);
+ * result.rethrowFailures();
+ * </pre>
+ */
+public final class GradleModuleMetadataBatchWriter {
+	private final GradleModuleMetadataWriter.Format format;
+	// Kept across batches so the worker threads, and their buffers, are reused, idle workers terminate on their own
+	private final ForkJoinPool pool;
+
+	public GradleModuleMetadataBatchWriter() {
+		this(GradleModuleMetadataWriter.Format.Pretty, Runtime.getRuntime().availableProcessors());
+	}
+
+	public GradleModuleMetadataBatchWriter(GradleModuleMetadataWriter.Format format, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive.");
+		}
+		this.format = Objects.requireNonNull(format);
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Writes each entry's metadata to its file.
+	 *
+	 * @param entries  the metadata and files to write, must not be null
+	 * @return the result of each entry in the order of the specified entries, never null
+	 * @throws InterruptedIOException if interrupted while waiting for the files to be written
+	 */
+	public Result writeAll(Collection<? extends Entry> entries) throws InterruptedIOException {
+		val tasks = new ArrayList<Callable<FileResult>>(entries.size());
+		for (Entry entry : entries) {
+			tasks.add(() -> write(entry));
+		}
+
+		try {
+			val result = new ArrayList<FileResult>(entries.size());
+			for (Future<FileResult> future : pool.invokeAll(tasks)) {
+				result.add(future.get());
+			}
+			return new Result(result);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			val exception = new InterruptedIOException("Interrupted while writing Gradle module metadata files.");
+			exception.initCause(e);
+			throw exception;
+		} catch (ExecutionException e) {
+			// Failures are captured per file, only errors can escape
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private FileResult write(Entry entry) {
+		val startTime = System.nanoTime();
+		boolean written = false;
+		IOException failure = null;
+		try {
+			written = IncrementalFileWriter.write(entry.getFile(), format, writer -> {
+				try {
+					writer.write(entry.getMetadata());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (IOException e) {
+			failure = e;
+		} catch (UncheckedIOException e) {
+			failure = e.getCause();
+		} catch (RuntimeException e) {
+			failure = new IOException("Could not write Gradle module metadata to '" + entry.getFile() + "'.", e);
+		}
+		return new FileResult(entry.getFile(), Duration.ofNanos(System.nanoTime() - startTime), written, failure);
+	}
+
+	@Value(staticConstructor = "of")
+	public static class Entry {
+		GradleModuleMetadata metadata;
+		Path file;
+	}
+
+	@Value
+	public static class FileResult {
+		Path file;
+
+		/**
+		 * Time spent serializing, comparing and writing this file.
+		 */
+		Duration duration;
+
+		/**
+		 * Whether the file was written, unchanged files are left untouched.
+		 */
+		boolean written;
+
+		@Nullable IOException failure;
+
+		public Optional<IOException> getFailure() {
+			return Optional.ofNullable(failure);
+		}
+	}
+
+	@Value
+	public static class Result {
+		List<FileResult> files;
+
+		public List<FileResult> getFailures() {
+			return files.stream().filter(it -> it.getFailure().isPresent()).collect(Collectors.toList());
+		}
+
+		/**
+		 * Rethrows the failures, if any, as a single exception with each failure suppressed.
+		 *
+		 * @throws IOException if any file could not be written
+		 */
+		public void rethrowFailures() throws IOException {
+			val failures = getFailures();
+			if (!failures.isEmpty()) {
+				val exception = new IOException("Could not write " + failures.size() + " Gradle module metadata file(s).");
+				failures.forEach(it -> exception.addSuppressed(it.failure));
+				throw exception;
+			}
+		}
+	}
+}
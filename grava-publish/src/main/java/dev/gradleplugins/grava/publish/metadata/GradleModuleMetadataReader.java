@@ -0,0 +1,147 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Reads Gradle module metadata from the underlying reader.
+ * The document is parsed as a stream, only the requested parts are decoded and everything else is skipped over.
+ * Each reader can read a single document, e.g. only one of the read methods should be called.
+ * Equal attributes, capabilities and excludes of the read variants share a single instance.
+ *
+ * <pre>
+ * try (val reader = GradleModuleMetadata.newReader(file).skipFiles()) {
+ *     reader.readVariants(variant -&gt; ...);
+ * }
+ * </pre>
+ */
+public final class GradleModuleMetadataReader implements Closeable {
+	private final JsonReader reader;
+	private final ValueInterner interner = new ValueInterner();
+	private boolean skipDependencies = false;
+	private boolean skipFiles = false;
+
+	public GradleModuleMetadataReader(Reader reader) {
+		this.reader = GradleModuleMetadataTypeAdapters.GSON.newJsonReader(reader);
+	}
+
+	/**
+	 * Skips over the variant dependencies and dependency constraints, the read variants will have none.
+	 *
+	 * @return this reader, never null
+	 */
+	public GradleModuleMetadataReader skipDependencies() {
+		this.skipDependencies = true;
+		return this;
+	}
+
+	/**
+	 * Skips over the variant files, the read variants will have none.
+	 *
+	 * @return this reader, never null
+	 */
+	public GradleModuleMetadataReader skipFiles() {
+		this.skipFiles = true;
+		return this;
+	}
+
+	/**
+	 * Reads the whole document.
+	 *
+	 * @return the metadata, never null
+	 * @throws IOException if an I/O error occurs or the document is malformed
+	 */
+	public GradleModuleMetadata read() throws IOException {
+		val builder = GradleModuleMetadata.builder();
+		val formatVersion = readDocument(builder, builder::variant);
+		try {
+			GradleModuleMetadataTypeAdapters.checkMetadataProperties(formatVersion);
+		} catch (JsonParseException e) {
+			throw new IOException("Malformed Gradle module metadata.", e);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Reads the component coordinates only.
+	 * Reading stops as soon as the component is found without decoding, or even reading, the rest of the document.
+	 *
+	 * @return the component, if any
+	 * @throws IOException if an I/O error occurs or the document is malformed
+	 */
+	public Optional<GradleModuleMetadata.Component> readComponent() throws IOException {
+		try {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("component")) {
+					return Optional.ofNullable(GradleModuleMetadataTypeAdapters.COMPONENT.read(reader));
+				}
+				reader.skipValue();
+			}
+			reader.endObject();
+			return Optional.empty();
+		} catch (IllegalStateException | JsonParseException e) {
+			throw new IOException("Malformed Gradle module metadata.", e);
+		}
+	}
+
+	/**
+	 * Reads the variants one at a time, each variant is handed to the specified action as soon as it's decoded.
+	 * Only a single variant is held in memory at any time.
+	 *
+	 * The exceptions thrown by the action are propagated as is.
+	 *
+	 * @param action  the action to execute for each variant, must not be null
+	 * @throws IOException if an I/O error occurs or the document is malformed
+	 */
+	public void readVariants(Consumer<? super GradleModuleMetadata.Variant> action) throws IOException {
+		readDocument(GradleModuleMetadata.builder(), action);
+	}
+
+	@Nullable
+	private String readDocument(GradleModuleMetadata.Builder builder, Consumer<? super GradleModuleMetadata.Variant> variantAction) throws IOException {
+		try {
+			reader.beginObject();
+			val result = GradleModuleMetadataTypeAdapters.readMetadataProperties(reader, builder, GradleModuleMetadataTypeAdapters.variant(skipDependencies, skipFiles, interner), variant -> {
+				try {
+					variantAction.accept(variant);
+				} catch (RuntimeException e) {
+					throw new VariantActionException(e);
+				}
+			});
+			reader.endObject();
+			return result;
+		} catch (VariantActionException e) {
+			throw e.getCause();
+		} catch (IllegalStateException | JsonParseException e) {
+			throw new IOException("Malformed Gradle module metadata.", e);
+		}
+	}
+
+	// Carries the exceptions of the variant action past the malformed document handling, they don't tell anything about the document
+	private static final class VariantActionException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private VariantActionException(RuntimeException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized RuntimeException getCause() {
+			return (RuntimeException) super.getCause();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,870 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Hand-written type adapters for each Gradle module metadata model class.
+ *
+ * The adapters are stateless, hence thread-safe, and shared by every writer.
+ * They write each property explicitly, in the same order as the model declares them, so no reflection happens when serializing.
+ * Optional properties and empty collections are omitted, except for the {@literal variants} and {@literal rejects} arrays which are always written.
+ * The {@literal sha512} and {@literal sha256} file checksums are only written for the format versions supporting them, i.e. 1.1 and later.
+ * When reading, unknown properties are ignored and variants declaring {@literal available-at} are decoded as remote variants.
+ */
+final class GradleModuleMetadataTypeAdapters {
+	static final TypeAdapter<GradleModuleMetadata.Component> COMPONENT = new ComponentTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.Gradle> GRADLE = new GradleTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.CreatedBy> CREATED_BY = new CreatedByTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.Capability> CAPABILITY = new CapabilityTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.Exclude> EXCLUDE = new ExcludeTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.Version> VERSION = new VersionTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.Dependency> DEPENDENCY = new DependencyTypeAdapter(ValueInterner.none());
+	static final TypeAdapter<GradleModuleMetadata.DependencyConstraint> DEPENDENCY_CONSTRAINT = new DependencyConstraintTypeAdapter(ValueInterner.none());
+	static final TypeAdapter<GradleModuleMetadata.File> FILE = new FileTypeAdapter(true);
+	static final TypeAdapter<GradleModuleMetadata.AvailableAt> AVAILABLE_AT = new AvailableAtTypeAdapter();
+	static final TypeAdapter<GradleModuleMetadata.LocalVariant> LOCAL_VARIANT = new LocalVariantTypeAdapter(FILE);
+	static final TypeAdapter<GradleModuleMetadata.RemoteVariant> REMOTE_VARIANT = new RemoteVariantTypeAdapter();
+	private static final VariantTypeAdapter DEFAULT_VARIANT = new VariantTypeAdapter(false, false, ValueInterner.none());
+	static final TypeAdapter<GradleModuleMetadata.Variant> VARIANT = DEFAULT_VARIANT;
+	// Format version 1.0 predates the sha512 and sha256 file checksums
+	private static final TypeAdapter<GradleModuleMetadata.Variant> VARIANT_1_0 = new VariantTypeAdapter(new LocalVariantTypeAdapter(new FileTypeAdapter(false)));
+	static final TypeAdapter<GradleModuleMetadata> METADATA = new GradleModuleMetadataTypeAdapter();
+
+	/**
+	 * Preconfigured Gson instance using the hand-written adapters.
+	 */
+	static final Gson GSON = new GsonBuilder().setPrettyPrinting()
+		.registerTypeAdapter(GradleModuleMetadata.class, METADATA)
+		.registerTypeAdapter(GradleModuleMetadata.Component.class, COMPONENT)
+		.registerTypeAdapter(GradleModuleMetadata.CreatedBy.class, CREATED_BY)
+		.registerTypeAdapter(GradleModuleMetadata.Gradle.class, GRADLE)
+		.registerTypeAdapter(GradleModuleMetadata.Variant.class, VARIANT)
+		.registerTypeAdapter(GradleModuleMetadata.LocalVariant.class, LOCAL_VARIANT)
+		.registerTypeAdapter(GradleModuleMetadata.RemoteVariant.class, REMOTE_VARIANT)
+		.registerTypeAdapter(GradleModuleMetadata.Dependency.class, DEPENDENCY)
+		.registerTypeAdapter(GradleModuleMetadata.DependencyConstraint.class, DEPENDENCY_CONSTRAINT)
+		.registerTypeAdapter(GradleModuleMetadata.Exclude.class, EXCLUDE)
+		.registerTypeAdapter(GradleModuleMetadata.Capability.class, CAPABILITY)
+		.registerTypeAdapter(GradleModuleMetadata.Version.class, VERSION)
+		.registerTypeAdapter(GradleModuleMetadata.File.class, FILE)
+		.registerTypeAdapter(GradleModuleMetadata.AvailableAt.class, AVAILABLE_AT)
+		.create();
+
+	private GradleModuleMetadataTypeAdapters() {}
+
+	/**
+	 * Returns a variant adapter skipping over the specified properties when reading.
+	 *
+	 * @param skipDependencies  {@code true} to skip the dependencies and dependency constraints
+	 * @param skipFiles  {@code true} to skip the files
+	 * @param interner  the pool for the attributes, capabilities and excludes read
+	 * @return a variant adapter, never null
+	 */
+	static TypeAdapter<GradleModuleMetadata.Variant> variant(boolean skipDependencies, boolean skipFiles, ValueInterner interner) {
+		return new VariantTypeAdapter(skipDependencies, skipFiles, interner);
+	}
+
+	// The sha512 and sha256 file checksums were introduced by format version 1.1, unknown versions are assumed to be newer
+	private static boolean hasSha2Checksums(String formatVersion) {
+		val segments = formatVersion.split("\\.");
+		try {
+			val major = Integer.parseInt(segments[0]);
+			return major > 1 || (major == 1 && segments.length > 1 && Integer.parseInt(segments[1]) >= 1);
+		} catch (NumberFormatException e) {
+			return true;
+		}
+	}
+
+	private static void property(JsonWriter out, String name, @Nullable String value) throws IOException {
+		if (value != null) {
+			out.name(name).value(value);
+		}
+	}
+
+	private static <T> void property(JsonWriter out, String name, @Nullable T value, TypeAdapter<T> adapter) throws IOException {
+		if (value != null) {
+			out.name(name);
+			adapter.write(out, value);
+		}
+	}
+
+	private static <T> void array(JsonWriter out, String name, Collection<T> values, TypeAdapter<T> adapter) throws IOException {
+		out.name(name).beginArray();
+		for (T value : values) {
+			adapter.write(out, value);
+		}
+		out.endArray();
+	}
+
+	private static <T> void nonEmptyArray(JsonWriter out, String name, @Nullable Collection<T> values, TypeAdapter<T> adapter) throws IOException {
+		if (values != null && !values.isEmpty()) {
+			array(out, name, values, adapter);
+		}
+	}
+
+	private static void attributes(JsonWriter out, String name, @Nullable List<GradleModuleMetadata.Attribute> values) throws IOException {
+		if (values != null && !values.isEmpty()) {
+			out.name(name).beginObject();
+			for (GradleModuleMetadata.Attribute attribute : values) {
+				out.name(attribute.getName()).value(attribute.getValue().toString());
+			}
+			out.endObject();
+		}
+	}
+
+	/**
+	 * Returns a copy of the specified JSON tree where the properties of every object are sorted by name.
+	 * The {@literal excludes} arrays, being sets, are sorted by group then module, other arrays keep their order.
+	 *
+	 * @param element  the JSON tree to canonicalize, must not be null
+	 * @return a canonical JSON tree, never null
+	 */
+	static JsonElement canonicalize(JsonElement element) {
+		if (element.isJsonObject()) {
+			val properties = new TreeMap<String, JsonElement>();
+			for (Map.Entry<String, JsonElement> property : element.getAsJsonObject().entrySet()) {
+				val value = canonicalize(property.getValue());
+				if (property.getKey().equals("excludes") && value.isJsonArray()) {
+					properties.put(property.getKey(), sortedByGroupAndModule(value.getAsJsonArray()));
+				} else {
+					properties.put(property.getKey(), value);
+				}
+			}
+			val result = new JsonObject();
+			properties.forEach(result::add);
+			return result;
+		} else if (element.isJsonArray()) {
+			val result = new JsonArray();
+			for (JsonElement value : element.getAsJsonArray()) {
+				result.add(canonicalize(value));
+			}
+			return result;
+		}
+		return element;
+	}
+
+	private static JsonArray sortedByGroupAndModule(JsonArray values) {
+		val elements = new ArrayList<JsonElement>(values.size());
+		values.forEach(elements::add);
+		elements.sort(Comparator.comparing((JsonElement it) -> stringProperty(it, "group")).thenComparing(it -> stringProperty(it, "module")));
+
+		val result = new JsonArray();
+		elements.forEach(result::add);
+		return result;
+	}
+
+	private static String stringProperty(JsonElement element, String name) {
+		if (element.isJsonObject() && element.getAsJsonObject().has(name)) {
+			return element.getAsJsonObject().get(name).getAsString();
+		}
+		return "";
+	}
+
+	@Nullable
+	private static String nextString(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextString();
+	}
+
+	private static String nextRequiredString(JsonReader in) throws IOException {
+		val path = in.getPath();
+		val result = nextString(in);
+		if (result == null) {
+			throw new JsonParseException("Expected a value for required property at " + path + ".");
+		}
+		return result;
+	}
+
+	private static <T> void readArray(JsonReader in, TypeAdapter<T> adapter, Consumer<? super T> action) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return;
+		}
+		in.beginArray();
+		while (in.hasNext()) {
+			action.accept(adapter.read(in));
+		}
+		in.endArray();
+	}
+
+	private static void readAttributes(JsonReader in, Consumer<? super GradleModuleMetadata.Attribute> action) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return;
+		}
+		in.beginObject();
+		while (in.hasNext()) {
+			action.accept(GradleModuleMetadata.Attribute.ofAttribute(in.nextName(), nextAttributeValue(in)));
+		}
+		in.endObject();
+	}
+
+	// Gradle writes boolean and integer attributes, i.e. org.gradle.jvm.version, as JSON primitives
+	private static Object nextAttributeValue(JsonReader in) throws IOException {
+		switch (in.peek()) {
+			case BOOLEAN:
+				return in.nextBoolean();
+			case NUMBER:
+				String value = in.nextString();
+				try {
+					long result = Long.parseLong(value);
+					if (result == (int) result) {
+						return (int) result;
+					}
+					return result;
+				} catch (NumberFormatException e) {
+					return value;
+				}
+			default:
+				return in.nextString();
+		}
+	}
+
+	/**
+	 * Reads the top-level properties of a Gradle module metadata document, each variant is decoded and handed to the specified action as soon as it is read.
+	 *
+	 * @return the format version, if the document has one
+	 */
+	@Nullable
+	static String readMetadataProperties(JsonReader in, GradleModuleMetadata.Builder builder, TypeAdapter<GradleModuleMetadata.Variant> variantAdapter, Consumer<? super GradleModuleMetadata.Variant> variantAction) throws IOException {
+		String formatVersion = null;
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+				case "formatVersion":
+					formatVersion = nextString(in);
+					builder.formatVersion(formatVersion);
+					break;
+				case "component":
+					builder.component(COMPONENT.read(in));
+					break;
+				case "createdBy":
+					builder.createdBy(CREATED_BY.read(in));
+					break;
+				case "variants":
+					readArray(in, variantAdapter, variantAction);
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		return formatVersion;
+	}
+
+	/**
+	 * Checks the required top-level properties of a Gradle module metadata document are present.
+	 */
+	static void checkMetadataProperties(@Nullable String formatVersion) {
+		if (formatVersion == null) {
+			throw new JsonParseException("Missing required property 'formatVersion'.");
+		}
+	}
+
+	private static abstract class ObjectTypeAdapter<T> extends TypeAdapter<T> {
+		@Override
+		public final void write(JsonWriter out, T value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+			} else {
+				out.beginObject();
+				writeProperties(out, value);
+				out.endObject();
+			}
+		}
+
+		protected abstract void writeProperties(JsonWriter out, T value) throws IOException;
+
+		@Override
+		public final T read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			in.beginObject();
+			T result = readProperties(in);
+			in.endObject();
+			return result;
+		}
+
+		protected abstract T readProperties(JsonReader in) throws IOException;
+	}
+
+	private static final class GradleModuleMetadataTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata value) throws IOException {
+			property(out, "formatVersion", value.getFormatVersion());
+			property(out, "component", value.getComponent().orElse(null), COMPONENT);
+			property(out, "createdBy", value.getCreatedBy().orElse(null), CREATED_BY);
+			array(out, "variants", value.getVariants(), hasSha2Checksums(value.getFormatVersion()) ? VARIANT : VARIANT_1_0);
+		}
+
+		@Override
+		protected GradleModuleMetadata readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.Builder builder = GradleModuleMetadata.builder();
+			checkMetadataProperties(readMetadataProperties(in, builder, variant(false, false, new ValueInterner()), builder::variant));
+			return builder.build();
+		}
+
+	}
+
+	private static final class ComponentTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.Component> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.Component value) throws IOException {
+			property(out, "group", value.getGroup());
+			property(out, "module", value.getModule());
+			property(out, "version", value.getVersion());
+		}
+
+		@Override
+		protected GradleModuleMetadata.Component readProperties(JsonReader in) throws IOException {
+			String group = null;
+			String module = null;
+			String version = null;
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "group":
+						group = nextString(in);
+						break;
+					case "module":
+						module = nextString(in);
+						break;
+					case "version":
+						version = nextString(in);
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return GradleModuleMetadata.Component.ofComponent(group, module, version);
+		}
+
+	}
+
+	private static final class CreatedByTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.CreatedBy> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.CreatedBy value) throws IOException {
+			property(out, "gradle", value.getGradle().orElse(null), GRADLE);
+		}
+
+		@Override
+		protected GradleModuleMetadata.CreatedBy readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.Gradle gradle = null;
+			while (in.hasNext()) {
+				if (in.nextName().equals("gradle")) {
+					gradle = GRADLE.read(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			return new GradleModuleMetadata.CreatedBy(gradle);
+		}
+
+	}
+
+	private static final class GradleTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.Gradle> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.Gradle value) throws IOException {
+			property(out, "version", value.getVersion());
+			property(out, "buildId", value.getBuildId());
+		}
+
+		@Override
+		protected GradleModuleMetadata.Gradle readProperties(JsonReader in) throws IOException {
+			String version = null;
+			String buildId = null;
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "version":
+						version = nextString(in);
+						break;
+					case "buildId":
+						buildId = nextString(in);
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return GradleModuleMetadata.Gradle.of(version, buildId);
+		}
+
+	}
+
+	private static final class VariantTypeAdapter extends TypeAdapter<GradleModuleMetadata.Variant> {
+		private final boolean skipDependencies;
+		private final boolean skipFiles;
+		private final ValueInterner interner;
+		private final TypeAdapter<GradleModuleMetadata.Dependency> dependencyAdapter;
+		private final TypeAdapter<GradleModuleMetadata.DependencyConstraint> dependencyConstraintAdapter;
+		private final TypeAdapter<GradleModuleMetadata.LocalVariant> localVariantAdapter;
+
+		private VariantTypeAdapter(boolean skipDependencies, boolean skipFiles, ValueInterner interner) {
+			this(skipDependencies, skipFiles, interner, LOCAL_VARIANT);
+		}
+
+		private VariantTypeAdapter(TypeAdapter<GradleModuleMetadata.LocalVariant> localVariantAdapter) {
+			this(false, false, ValueInterner.none(), localVariantAdapter);
+		}
+
+		private VariantTypeAdapter(boolean skipDependencies, boolean skipFiles, ValueInterner interner, TypeAdapter<GradleModuleMetadata.LocalVariant> localVariantAdapter) {
+			this.skipDependencies = skipDependencies;
+			this.skipFiles = skipFiles;
+			this.interner = interner;
+			this.dependencyAdapter = new DependencyTypeAdapter(interner);
+			this.dependencyConstraintAdapter = new DependencyConstraintTypeAdapter(interner);
+			this.localVariantAdapter = localVariantAdapter;
+		}
+
+		@Override
+		public void write(JsonWriter out, GradleModuleMetadata.Variant value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+			} else if (value instanceof GradleModuleMetadata.LocalVariant) {
+				localVariantAdapter.write(out, (GradleModuleMetadata.LocalVariant) value);
+			} else if (value instanceof GradleModuleMetadata.RemoteVariant) {
+				REMOTE_VARIANT.write(out, (GradleModuleMetadata.RemoteVariant) value);
+			} else {
+				throw new IllegalArgumentException("Unsupported variant type '" + value.getClass().getName() + "'.");
+			}
+		}
+
+		@Override
+		public GradleModuleMetadata.Variant read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+
+			in.beginObject();
+			GradleModuleMetadata.Variant result = readVariantProperties(in);
+			in.endObject();
+			return result;
+		}
+
+		// Local and remote variants can only be told apart once all properties are read, i.e. available-at can come last
+		private GradleModuleMetadata.Variant readVariantProperties(JsonReader in) throws IOException {
+			String name = null;
+			GradleModuleMetadata.AvailableAt availableAt = null;
+			List<GradleModuleMetadata.Attribute> attributes = new ArrayList<>();
+			List<GradleModuleMetadata.Capability> capabilities = new ArrayList<>();
+			List<GradleModuleMetadata.Dependency> dependencies = new ArrayList<>();
+			List<GradleModuleMetadata.DependencyConstraint> dependencyConstraints = new ArrayList<>();
+			List<GradleModuleMetadata.File> files = new ArrayList<>();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "name":
+						name = nextString(in);
+						break;
+					case "attributes":
+						readAttributes(in, attributes::add);
+						break;
+					case "available-at":
+						availableAt = AVAILABLE_AT.read(in);
+						break;
+					case "capabilities":
+						readArray(in, CAPABILITY, capabilities::add);
+						break;
+					case "dependencies":
+						if (skipDependencies) {
+							in.skipValue();
+						} else {
+							readArray(in, dependencyAdapter, dependencies::add);
+						}
+						break;
+					case "dependencyConstraints":
+						if (skipDependencies) {
+							in.skipValue();
+						} else {
+							readArray(in, dependencyConstraintAdapter, dependencyConstraints::add);
+						}
+						break;
+					case "files":
+						if (skipFiles) {
+							in.skipValue();
+						} else {
+							readArray(in, FILE, files::add);
+						}
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+
+			if (availableAt != null) {
+				GradleModuleMetadata.RemoteVariant.Builder builder = GradleModuleMetadata.RemoteVariant.builder(interner).name(name).availableAt(availableAt);
+				attributes.forEach(builder::attribute);
+				capabilities.forEach(builder::capability);
+				return builder.build();
+			}
+
+			GradleModuleMetadata.LocalVariant.Builder builder = GradleModuleMetadata.LocalVariant.builder(interner).name(name);
+			attributes.forEach(builder::attribute);
+			capabilities.forEach(builder::capability);
+			dependencies.forEach(builder::dependency);
+			dependencyConstraints.forEach(builder::dependencyConstraint);
+			files.forEach(builder::file);
+			return builder.build();
+		}
+	}
+
+	private static final class LocalVariantTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.LocalVariant> {
+		private final TypeAdapter<GradleModuleMetadata.File> fileAdapter;
+
+		private LocalVariantTypeAdapter(TypeAdapter<GradleModuleMetadata.File> fileAdapter) {
+			this.fileAdapter = fileAdapter;
+		}
+
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.LocalVariant value) throws IOException {
+			property(out, "name", value.getName());
+			attributes(out, "attributes", value.getAttributes());
+			nonEmptyArray(out, "capabilities", value.getCapabilities(), CAPABILITY);
+			nonEmptyArray(out, "dependencies", value.getDependencies(), DEPENDENCY);
+			nonEmptyArray(out, "dependencyConstraints", value.getDependencyConstraints(), DEPENDENCY_CONSTRAINT);
+			nonEmptyArray(out, "files", value.getFiles(), fileAdapter);
+		}
+
+		@Override
+		protected GradleModuleMetadata.LocalVariant readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.Variant result = DEFAULT_VARIANT.readVariantProperties(in);
+			if (!(result instanceof GradleModuleMetadata.LocalVariant)) {
+				throw new JsonParseException("Expected a local variant but found a remote variant at " + in.getPath() + ".");
+			}
+			return (GradleModuleMetadata.LocalVariant) result;
+		}
+
+	}
+
+	private static final class RemoteVariantTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.RemoteVariant> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.RemoteVariant value) throws IOException {
+			property(out, "name", value.getName());
+			attributes(out, "attributes", value.getAttributes());
+			property(out, "available-at", value.getAvailableAt(), AVAILABLE_AT);
+			nonEmptyArray(out, "capabilities", value.getCapabilities(), CAPABILITY);
+		}
+
+		@Override
+		protected GradleModuleMetadata.RemoteVariant readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.Variant result = DEFAULT_VARIANT.readVariantProperties(in);
+			if (!(result instanceof GradleModuleMetadata.RemoteVariant)) {
+				throw new JsonParseException("Expected a remote variant but found a local variant at " + in.getPath() + ".");
+			}
+			return (GradleModuleMetadata.RemoteVariant) result;
+		}
+
+	}
+
+	private static final class DependencyTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.Dependency> {
+		private final ValueInterner interner;
+
+		private DependencyTypeAdapter(ValueInterner interner) {
+			this.interner = interner;
+		}
+
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.Dependency value) throws IOException {
+			property(out, "group", value.getGroup());
+			property(out, "name", value.getName());
+			property(out, "version", value.getVersion().orElse(null), VERSION);
+			nonEmptyArray(out, "excludes", value.getExcludes(), EXCLUDE);
+			property(out, "reason", value.getReason().orElse(null));
+			attributes(out, "attributes", value.getAttributes());
+			nonEmptyArray(out, "requestedCapabilities", value.getRequestedCapabilities(), CAPABILITY);
+		}
+
+		@Override
+		protected GradleModuleMetadata.Dependency readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.Dependency.Builder builder = GradleModuleMetadata.Dependency.builder(interner);
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "group":
+						builder.group(nextString(in));
+						break;
+					case "name":
+						builder.name(nextString(in));
+						break;
+					case "version":
+						builder.version(VERSION.read(in));
+						break;
+					case "excludes":
+						readArray(in, EXCLUDE, builder::exclude);
+						break;
+					case "reason":
+						builder.reason(nextString(in));
+						break;
+					case "attributes":
+						readAttributes(in, builder::attribute);
+						break;
+					case "requestedCapabilities":
+						readArray(in, CAPABILITY, builder::requestedCapability);
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return builder.build();
+		}
+
+	}
+
+	private static final class DependencyConstraintTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.DependencyConstraint> {
+		private final ValueInterner interner;
+
+		private DependencyConstraintTypeAdapter(ValueInterner interner) {
+			this.interner = interner;
+		}
+
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.DependencyConstraint value) throws IOException {
+			property(out, "group", value.getGroup());
+			property(out, "module", value.getModule());
+			property(out, "version", value.getVersion(), VERSION);
+			attributes(out, "attributes", value.getAttributes());
+			property(out, "reason", value.getReason());
+		}
+
+		@Override
+		protected GradleModuleMetadata.DependencyConstraint readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.DependencyConstraint.Builder builder = GradleModuleMetadata.DependencyConstraint.builder(interner);
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "group":
+						builder.group(nextString(in));
+						break;
+					case "module":
+						builder.module(nextString(in));
+						break;
+					case "version":
+						builder.version(VERSION.read(in));
+						break;
+					case "attributes":
+						readAttributes(in, builder::attribute);
+						break;
+					case "reason":
+						builder.reason(nextString(in));
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return builder.build();
+		}
+
+	}
+
+	private static final class ExcludeTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.Exclude> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.Exclude value) throws IOException {
+			property(out, "group", value.getGroup());
+			property(out, "module", value.getModule());
+		}
+
+		@Override
+		protected GradleModuleMetadata.Exclude readProperties(JsonReader in) throws IOException {
+			String group = null;
+			String module = null;
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "group":
+						group = nextString(in);
+						break;
+					case "module":
+						module = nextString(in);
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return GradleModuleMetadata.Exclude.ofExclude(group, module);
+		}
+
+	}
+
+	private static final class CapabilityTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.Capability> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.Capability value) throws IOException {
+			property(out, "group", value.getGroup());
+			property(out, "name", value.getName());
+			property(out, "version", value.getVersion().orElse(null));
+		}
+
+		@Override
+		protected GradleModuleMetadata.Capability readProperties(JsonReader in) throws IOException {
+			String group = null;
+			String name = null;
+			String version = null;
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "group":
+						group = nextString(in);
+						break;
+					case "name":
+						name = nextString(in);
+						break;
+					case "version":
+						version = nextString(in);
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return GradleModuleMetadata.Capability.ofCapability(group, name, version);
+		}
+
+	}
+
+	private static final class VersionTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.Version> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.Version value) throws IOException {
+			property(out, "requires", value.getRequires().orElse(null));
+			property(out, "strictly", value.getStrictly().orElse(null));
+			property(out, "preferred", value.getPreferred().orElse(null));
+			out.name("rejects").beginArray();
+			for (String reject : value.getRejects()) {
+				out.value(reject);
+			}
+			out.endArray();
+		}
+
+		@Override
+		protected GradleModuleMetadata.Version readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.Version.Builder builder = GradleModuleMetadata.Version.builder();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "requires":
+						builder.requires(nextString(in));
+						break;
+					case "strictly":
+						builder.strictly(nextString(in));
+						break;
+					case "preferred":
+						builder.preferred(nextString(in));
+						break;
+					case "rejects":
+						in.beginArray();
+						while (in.hasNext()) {
+							builder.reject(in.nextString());
+						}
+						in.endArray();
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return builder.build();
+		}
+
+	}
+
+	private static final class FileTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.File> {
+		private final boolean writeSha2Checksums;
+
+		private FileTypeAdapter(boolean writeSha2Checksums) {
+			this.writeSha2Checksums = writeSha2Checksums;
+		}
+
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.File value) throws IOException {
+			property(out, "name", value.getName());
+			property(out, "url", value.getUrl());
+			out.name("size").value(value.getSize());
+			if (writeSha2Checksums) {
+				property(out, "sha512", value.getSha512());
+				property(out, "sha256", value.getSha256());
+			}
+			property(out, "sha1", value.getSha1());
+			property(out, "md5", value.getMd5());
+		}
+
+		@Override
+		protected GradleModuleMetadata.File readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.File.Builder builder = GradleModuleMetadata.File.builder();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "name":
+						builder.name(nextString(in));
+						break;
+					case "url":
+						builder.url(nextString(in));
+						break;
+					case "size":
+						builder.size(in.nextLong());
+						break;
+					case "sha512":
+						builder.sha512(nextString(in));
+						break;
+					case "sha256":
+						builder.sha256(nextString(in));
+						break;
+					case "sha1":
+						builder.sha1(nextString(in));
+						break;
+					case "md5":
+						builder.md5(nextString(in));
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return builder.build();
+		}
+
+	}
+
+	private static final class AvailableAtTypeAdapter extends ObjectTypeAdapter<GradleModuleMetadata.AvailableAt> {
+		@Override
+		protected void writeProperties(JsonWriter out, GradleModuleMetadata.AvailableAt value) throws IOException {
+			property(out, "url", value.getUrl());
+			property(out, "group", value.getGroup());
+			property(out, "module", value.getModule());
+			property(out, "version", value.getVersion());
+		}
+
+		@Override
+		protected GradleModuleMetadata.AvailableAt readProperties(JsonReader in) throws IOException {
+			GradleModuleMetadata.AvailableAt.Builder builder = GradleModuleMetadata.AvailableAt.builder();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "url":
+						builder.url(nextRequiredString(in));
+						break;
+					case "group":
+						builder.group(nextRequiredString(in));
+						break;
+					case "module":
+						builder.module(nextRequiredString(in));
+						break;
+					case "version":
+						builder.version(nextRequiredString(in));
+						break;
+					default:
+						in.skipValue();
+				}
+			}
+			return builder.build();
+		}
+
+	}
+}
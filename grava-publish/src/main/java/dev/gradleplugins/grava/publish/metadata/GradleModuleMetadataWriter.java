@@ -1,71 +1,81 @@
 package dev.gradleplugins.grava.publish.metadata;
 
-import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonElement;
 import lombok.val;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.reflect.Type;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
+import java.util.Objects;
 
 public final class GradleModuleMetadataWriter implements Closeable {
-	private static final Type CAPABILITIES_TYPE = new TypeToken<List<GradleModuleMetadata.Capability>>() {}.getType();
-	private static final Type EXCLUDES_TYPE = new TypeToken<Set<GradleModuleMetadata.Exclude>>() {}.getType();
-	private static final Type ATTRIBUTES_TYPE = new TypeToken<List<GradleModuleMetadata.Attribute>>() {}.getType();
-	private static final Type DEPENDENCIES_TYPE = new TypeToken<List<GradleModuleMetadata.Dependency>>() {}.getType();
-	private static final Type DEPENDENCY_CONSTRAINTS_TYPE = new TypeToken<List<GradleModuleMetadata.DependencyConstraint>>() {}.getType();
-	private static final Type FILES_TYPE = new TypeToken<List<GradleModuleMetadata.File>>() {}.getType();
-
 	private final Writer writer;
+	private final Format format;
 
 	public GradleModuleMetadataWriter(Writer writer) {
-		this.writer = writer;
+		this(writer, Format.Pretty);
 	}
 
-	public void write(GradleModuleMetadata metadata) throws IOException {
-		val gson = new GsonBuilder().setPrettyPrinting()
-			.registerTypeAdapter(ATTRIBUTES_TYPE, AttributesSerializer.INSTANCE)
-			.registerTypeAdapter(DEPENDENCIES_TYPE, CollectionSerializer.INSTANCE)
-			.registerTypeAdapter(EXCLUDES_TYPE, CollectionSerializer.INSTANCE)
-			.registerTypeAdapter(CAPABILITIES_TYPE, CollectionSerializer.INSTANCE)
-			.registerTypeAdapter(DEPENDENCY_CONSTRAINTS_TYPE, CollectionSerializer.INSTANCE)
-			.registerTypeAdapter(FILES_TYPE, CollectionSerializer.INSTANCE)
-			.create();
-		writer.write(gson.toJson(metadata));
+	public GradleModuleMetadataWriter(Writer writer, Format format) {
+		this.writer = writer;
+		this.format = Objects.requireNonNull(format);
 	}
 
-	@Override
-	public void close() throws IOException {
-		writer.close();
-	}
+	/**
+	 * Output format of the written metadata.
+	 */
+	public enum Format {
+		/**
+		 * Indented output, properties are written in declaration order.
+		 */
+		Pretty,
 
-	private enum CollectionSerializer implements JsonSerializer<Collection<?>> {
-		INSTANCE;
+		/**
+		 * Output without any insignificant whitespace, properties are written in declaration order.
+		 */
+		Compact,
 
-		@Override
-		public JsonElement serialize(Collection<?> src, Type typeOfSrc, JsonSerializationContext context) {
-			if (src.isEmpty()) {
-				return null;
-			}
-			return context.serialize(src);
-		}
+		/**
+		 * Output without any insignificant whitespace and with the properties of every object sorted by name.
+		 * The excludes, being sets, are sorted by group then module, other arrays keep their declaration order.
+		 * Equal metadata always produce the same bytes, so documents can be hashed and compared cheaply.
+		 */
+		Canonical
 	}
 
-	private enum AttributesSerializer implements JsonSerializer<List<GradleModuleMetadata.Attribute>> {
-		INSTANCE;
-
-		@Override
-		public JsonElement serialize(List<GradleModuleMetadata.Attribute> src, Type typeOfSrc, JsonSerializationContext context) {
-			if (src.isEmpty()) {
-				return null;
-			}
-			val map = new JsonObject();
-			src.forEach(a -> map.addProperty(a.getName(), a.getValue().toString()));
-			return map;
+	/**
+	 * Writes the specified metadata to the underlying writer.
+	 * Each variant, dependency and file is streamed directly to the writer without building an intermediate JSON tree or string.
+	 * The serializer is shared between all writers and doesn't use reflection.
+	 * In canonical format, the metadata is first written to an in-memory JSON tree to sort the properties.
+	 *
+	 * @param metadata  the metadata to write, must not be null
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(GradleModuleMetadata metadata) throws IOException {
+		val jsonWriter = GradleModuleMetadataTypeAdapters.GSON.newJsonWriter(writer);
+		jsonWriter.setHtmlSafe(true); // as Gson#toJson does, so the bytes stay the same as previously published metadata
+		switch (format) {
+			case Pretty:
+				GradleModuleMetadataTypeAdapters.METADATA.write(jsonWriter, metadata);
+				break;
+			case Compact:
+				jsonWriter.setIndent("");
+				GradleModuleMetadataTypeAdapters.METADATA.write(jsonWriter, metadata);
+				break;
+			case Canonical:
+				jsonWriter.setIndent("");
+				val tree = GradleModuleMetadataTypeAdapters.canonicalize(GradleModuleMetadataTypeAdapters.METADATA.toJsonTree(metadata));
+				GradleModuleMetadataTypeAdapters.GSON.getAdapter(JsonElement.class).write(jsonWriter, tree);
+				break;
+			default:
+				throw new IllegalStateException("Unsupported format '" + format + "'.");
 		}
+		jsonWriter.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
 	}
 }
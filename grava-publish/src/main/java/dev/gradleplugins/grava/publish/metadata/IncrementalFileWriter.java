@@ -0,0 +1,137 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes Gradle module metadata files only when their content changes.
+ * The metadata is serialized into a per-thread reusable buffer and compared with the existing file, first by size then byte for byte.
+ * Changed content is written to a temporary file which atomically replaces the target, so readers never observe a partially written file.
+ */
+final class IncrementalFileWriter {
+	// Larger buffers are released after use instead of being retained by the thread
+	private static final int MAXIMUM_RETAINED_BUFFER_SIZE = 1024 * 1024;
+	private static final int COMPARE_CHUNK_SIZE = 8 * 1024;
+	private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+	private IncrementalFileWriter() {}
+
+	/**
+	 * Writes the metadata serialized by the specified action to the specified file, unless the file already has the exact same content.
+	 *
+	 * @param file  the file to write, must not be null
+	 * @param format  the output format, must not be null
+	 * @param action  the action writing the metadata, must not be null
+	 * @return {@code true} if the file was written or {@code false} if it was already up-to-date
+	 * @throws IOException if an I/O error occurs
+	 */
+	static boolean write(Path file, GradleModuleMetadataWriter.Format format, Consumer<? super GradleModuleMetadataWriter> action) throws IOException {
+		Buffer buffer = BUFFER.get();
+		if (buffer.inUse) {
+			// i.e. the action writes another metadata file
+			buffer = new Buffer();
+		}
+
+		buffer.inUse = true;
+		try {
+			buffer.reset();
+			try (val writer = new GradleModuleMetadataWriter(new OutputStreamWriter(buffer, UTF_8), format)) {
+				action.accept(writer);
+			}
+
+			if (hasSameContent(file, buffer)) {
+				return false;
+			}
+			replace(file, buffer);
+			return true;
+		} finally {
+			buffer.inUse = false;
+			if (buffer.capacity() > MAXIMUM_RETAINED_BUFFER_SIZE) {
+				BUFFER.remove();
+			}
+		}
+	}
+
+	private static boolean hasSameContent(Path file, Buffer buffer) throws IOException {
+		try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != buffer.size()) {
+				return false;
+			}
+
+			val chunk = ByteBuffer.allocate(COMPARE_CHUNK_SIZE);
+			int offset = 0;
+			while (offset < buffer.size()) {
+				chunk.clear();
+				val count = channel.read(chunk);
+				if (count < 0) {
+					return false;
+				}
+				for (int i = 0; i < count; ++i) {
+					if (chunk.get(i) != buffer.byteAt(offset + i)) {
+						return false;
+					}
+				}
+				offset += count;
+			}
+			return true;
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+	}
+
+	private static void replace(Path file, Buffer buffer) throws IOException {
+		val directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		val temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (val channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				val content = buffer.toByteBuffer();
+				while (content.hasRemaining()) {
+					channel.write(content);
+				}
+			}
+
+			try {
+				Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	private static final class Buffer extends ByteArrayOutputStream {
+		private boolean inUse = false;
+
+		private Buffer() {
+			super(16 * 1024);
+		}
+
+		byte byteAt(int index) {
+			return buf[index];
+		}
+
+		int capacity() {
+			return buf.length;
+		}
+
+		ByteBuffer toByteBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of immutable model values, i.e. attributes, capabilities and excludes, where equal values share a single instance.
+ * Variants of a component mostly repeat the same handful of values, pooling them keeps the heap footprint proportional to the distinct values.
+ * A pool is scoped to a single {@link GradleModuleMetadata.Builder} or {@link GradleModuleMetadataReader} and isn't thread-safe.
+ */
+final class ValueInterner {
+	private static final ValueInterner NONE = new ValueInterner(null);
+	@Nullable private final Map<Object, Object> values;
+
+	ValueInterner() {
+		this(new HashMap<>());
+	}
+
+	private ValueInterner(@Nullable Map<Object, Object> values) {
+		this.values = values;
+	}
+
+	/**
+	 * Returns a pool that never pools, used by standalone builders.
+	 *
+	 * @return a pass-through pool, never null
+	 */
+	static ValueInterner none() {
+		return NONE;
+	}
+
+	/**
+	 * Returns the pooled instance equal to the specified value, pooling the value if none.
+	 *
+	 * @param value  the value to intern
+	 * @param <T>  the value type
+	 * @return the pooled instance
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T intern(T value) {
+		if (values == null || value == null) {
+			return value;
+		}
+		Object result = values.putIfAbsent(value, value);
+		if (result == null) {
+			return value;
+		}
+		return (T) result;
+	}
+}
@@ -0,0 +1,80 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.gradleplugins.grava.publish.metadata.CompactCollections.copyOfList;
+import static dev.gradleplugins.grava.publish.metadata.CompactCollections.copyOfSet;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Attribute.ofAttribute;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Exclude.ofExclude;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactCollectionsTest {
+	@Test
+	void sharesEmptyCollections() {
+		assertThat(copyOfList(new ArrayList<>()), sameInstance(Collections.emptyList()));
+		assertThat(copyOfSet(new HashSet<>()), sameInstance(Collections.emptySet()));
+	}
+
+	@Test
+	void copiesListsOfAnySize() {
+		for (int size = 0; size < 10; ++size) {
+			val values = IntStream.range(0, size).boxed().collect(Collectors.toList());
+			val result = copyOfList(values);
+			assertThat(result, equalTo(values));
+			assertThat(result.hashCode(), equalTo(values.hashCode()));
+		}
+	}
+
+	@Test
+	void copiesSetsOfAnySizeInIterationOrder() {
+		for (int size = 0; size < 20; ++size) {
+			val values = IntStream.range(0, size).map(it -> 100 - it).boxed().collect(Collectors.toCollection(LinkedHashSet::new));
+			val result = copyOfSet(values);
+			assertThat(result, equalTo(values));
+			assertThat(result.hashCode(), equalTo(values.hashCode()));
+			assertThat(new ArrayList<>(result), equalTo(new ArrayList<>(values)));
+			values.forEach(it -> assertThat(result.contains(it), equalTo(true)));
+			assertThat(result.contains(-1), equalTo(false));
+		}
+	}
+
+	@Test
+	void copiesAreImmutable() {
+		assertThrows(UnsupportedOperationException.class, () -> copyOfList(Arrays.asList(1, 2)).add(3));
+		assertThrows(UnsupportedOperationException.class, () -> copyOfList(Arrays.asList(1, 2, 3)).set(0, 4));
+		assertThrows(UnsupportedOperationException.class, () -> copyOfSet(new LinkedHashSet<>(Arrays.asList(1, 2, 3))).add(4));
+	}
+
+	@Test
+	void builtValuesAreNotAffectedByFurtherBuilderChanges() {
+		val builder = GradleModuleMetadata.LocalVariant.builder().name("foo").attribute(ofAttribute("org.gradle.usage", "java-api"));
+		val variant = builder.build();
+		builder.attribute(ofAttribute("org.gradle.category", "library"));
+
+		assertThat(variant.getAttributes(), contains(ofAttribute("org.gradle.usage", "java-api")));
+		assertThat(variant.getFiles(), empty());
+		assertThrows(UnsupportedOperationException.class, () -> variant.getAttributes().add(ofAttribute("org.gradle.category", "library")));
+	}
+
+	@Test
+	void keepsExcludesInDeclarationOrder() {
+		val dependency = GradleModuleMetadata.Dependency.builder().name("foo")
+			.exclude(ofExclude("org", "b")).exclude(ofExclude("org", "a")).exclude(ofExclude("org", "c")).exclude(ofExclude("org", "a"))
+			.build();
+		assertThat(dependency.getExcludes(), contains(ofExclude("org", "b"), ofExclude("org", "a"), ofExclude("org", "c")));
+	}
+}
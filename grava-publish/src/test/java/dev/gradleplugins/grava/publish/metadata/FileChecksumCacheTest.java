@@ -0,0 +1,160 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+class FileChecksumCacheTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void computesChecksumsOfUncachedFile() throws IOException {
+		val file = file("foo.jar", "foo");
+		assertThat(GradleModuleMetadata.File.ofFile(file, cache()), equalTo(GradleModuleMetadata.File.ofFile(file)));
+	}
+
+	@Test
+	void reusesChecksumsOfUnchangedFile() throws IOException {
+		val cache = cache();
+		val file = file("foo.jar", "foo");
+		val expected = GradleModuleMetadata.File.ofFile(file, cache);
+
+		sneakilyRewrite(file, "bar");
+		assertThat(GradleModuleMetadata.File.ofFile(file, cache), equalTo(expected));
+	}
+
+	@Test
+	void rehashesChangedFile() throws IOException {
+		val cache = cache();
+		val file = file("foo.jar", "foo");
+		val original = GradleModuleMetadata.File.ofFile(file, cache);
+
+		Files.write(file, "foobar".getBytes(UTF_8));
+		val result = GradleModuleMetadata.File.ofFile(file, cache);
+		assertThat(result, not(equalTo(original)));
+		assertThat(result, equalTo(GradleModuleMetadata.File.ofFile(file)));
+	}
+
+	@Test
+	void persistsChecksumsAcrossCacheInstances() throws IOException {
+		val file = file("foo.jar", "foo");
+		val expected = GradleModuleMetadata.File.ofFile(file, cache());
+
+		sneakilyRewrite(file, "bar");
+		assertThat(GradleModuleMetadata.File.ofFile(file, cache()), equalTo(expected));
+	}
+
+	@Test
+	void hashesOnlyChangedFilesOfMany() throws IOException {
+		val cache = cache();
+		val foo = file("foo.jar", "foo");
+		val bar = file("bar.jar", "bar");
+		val expected = GradleModuleMetadata.File.ofFiles(Arrays.asList(foo, bar), cache);
+
+		sneakilyRewrite(foo, "baz");
+		Files.write(bar, "foobar".getBytes(UTF_8));
+		val result = GradleModuleMetadata.File.ofFiles(Arrays.asList(foo, bar), cache);
+		assertThat(result.get(0), equalTo(expected.get(0)));
+		assertThat(result.get(1), equalTo(GradleModuleMetadata.File.ofFile(bar)));
+	}
+
+	@Test
+	void keepsOnlyMostRecentlyUsedEntries() throws IOException {
+		val cache = FileChecksumCache.of(testDirectory.resolve("cache/checksums.txt"), 2);
+		val foo = file("foo.jar", "foo");
+		val baz = file("baz.jar", "baz");
+		GradleModuleMetadata.File.ofFile(foo, cache);
+		GradleModuleMetadata.File.ofFile(file("bar.jar", "bar"), cache);
+		val expected = GradleModuleMetadata.File.ofFile(baz, cache);
+
+		sneakilyRewrite(foo, "oof");
+		sneakilyRewrite(baz, "zab");
+		val newCache = FileChecksumCache.of(testDirectory.resolve("cache/checksums.txt"), 2);
+		assertThat(GradleModuleMetadata.File.ofFile(foo, newCache), equalTo(GradleModuleMetadata.File.ofFile(foo)));
+		assertThat(GradleModuleMetadata.File.ofFile(baz, newCache), equalTo(expected));
+	}
+
+	@Test
+	void compactsCacheFileOnceItHoldsTwiceTheMaximumEntries() throws IOException {
+		val cache = FileChecksumCache.of(testDirectory.resolve("cache/checksums.txt"), 2);
+		for (int i = 0; i < 10; ++i) {
+			GradleModuleMetadata.File.ofFile(file("file" + i + ".jar", "file" + i), cache);
+
+			// header and up to twice the maximum entries
+			assertThat(Files.readAllLines(testDirectory.resolve("cache/checksums.txt")).size(), lessThanOrEqualTo(5));
+		}
+	}
+
+	@Test
+	void compactsCacheFileGrownByOtherCacheInstances() throws IOException {
+		val first = FileChecksumCache.of(testDirectory.resolve("cache/checksums.txt"), 2);
+		val second = FileChecksumCache.of(testDirectory.resolve("cache/checksums.txt"), 2);
+		for (int i = 0; i < 10; ++i) {
+			GradleModuleMetadata.File.ofFile(file("file" + i + ".jar", "file" + i), i % 2 == 0 ? first : second);
+
+			// header and up to twice the maximum entries, whichever instance appended them
+			assertThat(Files.readAllLines(testDirectory.resolve("cache/checksums.txt")).size(), lessThanOrEqualTo(5));
+		}
+	}
+
+	@Test
+	void keepsEntriesOfOtherCacheInstances() throws IOException {
+		val foo = file("foo.jar", "foo");
+		val bar = file("bar.jar", "bar");
+		val first = cache();
+		val second = cache();
+		val expectedFoo = GradleModuleMetadata.File.ofFile(foo, first);
+		val expectedBar = GradleModuleMetadata.File.ofFile(bar, second);
+
+		sneakilyRewrite(foo, "oof");
+		sneakilyRewrite(bar, "rab");
+		assertThat(GradleModuleMetadata.File.ofFiles(Arrays.asList(foo, bar), cache()), contains(expectedFoo, expectedBar));
+	}
+
+	@Test
+	void ignoresTruncatedEntry() throws IOException {
+		val file = file("foo.jar", "foo");
+		GradleModuleMetadata.File.ofFile(file, cache());
+		val content = new String(Files.readAllBytes(testDirectory.resolve("cache/checksums.txt")), UTF_8);
+		Files.write(testDirectory.resolve("cache/checksums.txt"), content.substring(0, content.length() - 2).getBytes(UTF_8));
+
+		sneakilyRewrite(file, "bar");
+		assertThat(GradleModuleMetadata.File.ofFile(file, cache()), equalTo(GradleModuleMetadata.File.ofFile(file)));
+	}
+
+	@Test
+	void ignoresCorruptedCacheFile() throws IOException {
+		Files.createDirectories(testDirectory.resolve("cache"));
+		Files.write(testDirectory.resolve("cache/checksums.txt"), "# grava file checksums v1\nfoo\tbar\n\u0000".getBytes(UTF_8));
+
+		val file = file("foo.jar", "foo");
+		assertThat(GradleModuleMetadata.File.ofFile(file, cache()), equalTo(GradleModuleMetadata.File.ofFile(file)));
+	}
+
+	private FileChecksumCache cache() throws IOException {
+		return FileChecksumCache.of(testDirectory.resolve("cache/checksums.txt"));
+	}
+
+	private Path file(String name, String content) throws IOException {
+		return Files.write(testDirectory.resolve(name), content.getBytes(UTF_8));
+	}
+
+	// Changes the content without changing the size nor the last modified time, only a cached checksum would not notice
+	private static void sneakilyRewrite(Path file, String content) throws IOException {
+		val lastModified = Files.getLastModifiedTime(file);
+		Files.write(file, content.getBytes(UTF_8));
+		Files.setLastModifiedTime(file, lastModified);
+	}
+}
@@ -0,0 +1,113 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileChecksumsTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void computesSizeAndChecksumsOfFile() throws Exception {
+		val file = file("foo-1.0.jar", 1000);
+		val result = GradleModuleMetadata.File.ofFile(file);
+
+		assertThat(result, equalTo(expectedFile(file)));
+	}
+
+	@Test
+	void computesChecksumsOfEmptyFile() throws Exception {
+		val file = file("empty.txt", 0);
+		assertThat(GradleModuleMetadata.File.ofFile(file), equalTo(expectedFile(file)));
+	}
+
+	@Test
+	void computesSameChecksumsAcrossChunks() throws Exception {
+		val file = file("chunked.bin", 10_000);
+		val chunked = FileChecksums.of(file, 4096);
+		val whole = FileChecksums.of(file);
+
+		assertThat(chunked.getSize(), equalTo(whole.getSize()));
+		assertThat(chunked.getSha512(), equalTo(whole.getSha512()));
+		assertThat(chunked.getSha256(), equalTo(whole.getSha256()));
+		assertThat(chunked.getSha1(), equalTo(whole.getSha1()));
+		assertThat(chunked.getMd5(), equalTo(whole.getMd5()));
+	}
+
+	@Test
+	void computesChecksumsOfManyFilesInOrder() throws Exception {
+		val files = new ArrayList<Path>();
+		val expected = new ArrayList<GradleModuleMetadata.File>();
+		for (int i = 0; i < 16; ++i) {
+			val file = file("file" + i + ".jar", i * 512);
+			files.add(file);
+			expected.add(expectedFile(file));
+		}
+
+		assertThat(GradleModuleMetadata.File.ofFiles(files), equalTo(expected));
+	}
+
+	@Test
+	void throwsExceptionWhenAnyFileIsMissing() throws Exception {
+		val files = Arrays.asList(file("foo.jar", 10), testDirectory.resolve("missing.jar"));
+		assertThrows(NoSuchFileException.class, () -> GradleModuleMetadata.File.ofFiles(files));
+	}
+
+	@Test
+	void writesChecksumsInGradleOrder() throws Exception {
+		val writer = new java.io.StringWriter();
+		new GradleModuleMetadataWriter(writer).write(GradleModuleMetadata.builder().formatVersion("1.1")
+			.localVariant(it -> it.name("foo").file(f -> f.name("foo.jar").url("foo.jar").size(1).sha512("e").sha256("d").sha1("c").md5("b")))
+			.build());
+		assertThat(writer.toString().replaceAll("\\s", ""), equalTo("{\"formatVersion\":\"1.1\",\"variants\":[{\"name\":\"foo\",\"files\":[{\"name\":\"foo.jar\",\"url\":\"foo.jar\",\"size\":1,\"sha512\":\"e\",\"sha256\":\"d\",\"sha1\":\"c\",\"md5\":\"b\"}]}]}"));
+	}
+
+	@Test
+	void omitsSha2ChecksumsForFormatVersion1_0() throws Exception {
+		val writer = new java.io.StringWriter();
+		new GradleModuleMetadataWriter(writer).write(GradleModuleMetadata.builder().formatVersion("1.0")
+			.localVariant(it -> it.name("foo").file(f -> f.name("foo.jar").url("foo.jar").size(1).sha512("e").sha256("d").sha1("c").md5("b")))
+			.build());
+		assertThat(writer.toString().replaceAll("\\s", ""), equalTo("{\"formatVersion\":\"1.0\",\"variants\":[{\"name\":\"foo\",\"files\":[{\"name\":\"foo.jar\",\"url\":\"foo.jar\",\"size\":1,\"sha1\":\"c\",\"md5\":\"b\"}]}]}"));
+	}
+
+	private Path file(String name, int size) throws IOException {
+		val content = new byte[size];
+		new Random(size).nextBytes(content);
+		return Files.write(testDirectory.resolve(name), content);
+	}
+
+	private static GradleModuleMetadata.File expectedFile(Path file) throws Exception {
+		val content = Files.readAllBytes(file);
+		return GradleModuleMetadata.File.builder()
+			.name(file.getFileName().toString())
+			.url(file.getFileName().toString())
+			.size(content.length)
+			.sha512(hash("SHA-512", content))
+			.sha256(hash("SHA-256", content))
+			.sha1(hash("SHA-1", content))
+			.md5(hash("MD5", content))
+			.build();
+	}
+
+	private static String hash(String algorithm, byte[] content) throws Exception {
+		val builder = new StringBuilder();
+		for (byte b : MessageDigest.getInstance(algorithm).digest(content)) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+}
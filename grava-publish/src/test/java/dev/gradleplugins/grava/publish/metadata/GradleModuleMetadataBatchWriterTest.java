@@ -0,0 +1,102 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GradleModuleMetadataBatchWriterTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void writesAllEntries() throws IOException {
+		val entries = new ArrayList<GradleModuleMetadataBatchWriter.Entry>();
+		for (int i = 0; i < 20; ++i) {
+			entries.add(GradleModuleMetadataBatchWriter.Entry.of(metadata("v" + i), testDirectory.resolve("c" + i + "/c" + i + ".module")));
+		}
+
+		val result = new GradleModuleMetadataBatchWriter(GradleModuleMetadataWriter.Format.Pretty, 4).writeAll(entries);
+		assertThat(result.getFailures(), empty());
+		assertThat(result.getFiles().stream().map(GradleModuleMetadataBatchWriter.FileResult::getFile).collect(Collectors.toList()),
+			equalTo(entries.stream().map(GradleModuleMetadataBatchWriter.Entry::getFile).collect(Collectors.toList())));
+		for (int i = 0; i < 20; ++i) {
+			assertThat(content(testDirectory.resolve("c" + i + "/c" + i + ".module")), equalTo(expectedContent(metadata("v" + i))));
+		}
+	}
+
+	@Test
+	void reportsUnchangedFilesAsNotWritten() throws IOException {
+		val entries = Arrays.asList(
+			GradleModuleMetadataBatchWriter.Entry.of(metadata("foo"), testDirectory.resolve("foo.module")),
+			GradleModuleMetadataBatchWriter.Entry.of(metadata("bar"), testDirectory.resolve("bar.module")));
+		new GradleModuleMetadataBatchWriter().writeAll(entries);
+
+		val result = new GradleModuleMetadataBatchWriter().writeAll(entries);
+		assertThat(result.getFiles().stream().map(GradleModuleMetadataBatchWriter.FileResult::isWritten).collect(Collectors.toList()), contains(false, false));
+	}
+
+	@Test
+	void reportsFailuresTogetherWithoutStoppingTheBatch() throws IOException {
+		Files.write(testDirectory.resolve("not-a-directory"), new byte[0]);
+		val entries = Arrays.asList(
+			GradleModuleMetadataBatchWriter.Entry.of(metadata("foo"), testDirectory.resolve("not-a-directory/foo.module")),
+			GradleModuleMetadataBatchWriter.Entry.of(metadata("bar"), testDirectory.resolve("bar.module")));
+
+		val result = new GradleModuleMetadataBatchWriter().writeAll(entries);
+		assertThat(result.getFailures(), hasSize(1));
+		assertThat(result.getFailures().get(0).getFile(), equalTo(testDirectory.resolve("not-a-directory/foo.module")));
+		assertThat(result.getFiles().get(1).isWritten(), is(true));
+		assertThat(content(testDirectory.resolve("bar.module")), equalTo(expectedContent(metadata("bar"))));
+
+		val ex = assertThrows(IOException.class, result::rethrowFailures);
+		assertThat(ex.getSuppressed().length, equalTo(1));
+	}
+
+	@Test
+	void canWriteManyBatches() throws IOException {
+		val writer = new GradleModuleMetadataBatchWriter(GradleModuleMetadataWriter.Format.Pretty, 2);
+		writer.writeAll(Collections.singletonList(GradleModuleMetadataBatchWriter.Entry.of(metadata("foo"), testDirectory.resolve("foo.module"))));
+
+		val result = writer.writeAll(Collections.singletonList(GradleModuleMetadataBatchWriter.Entry.of(metadata("bar"), testDirectory.resolve("foo.module"))));
+		assertThat(result.getFiles().get(0).isWritten(), is(true));
+		assertThat(content(testDirectory.resolve("foo.module")), equalTo(expectedContent(metadata("bar"))));
+	}
+
+	@Test
+	void acceptsEmptyBatch() throws IOException {
+		val result = new GradleModuleMetadataBatchWriter().writeAll(Collections.emptyList());
+		assertThat(result.getFiles(), empty());
+		result.rethrowFailures();
+	}
+
+	private static GradleModuleMetadata metadata(String variantName) {
+		return GradleModuleMetadata.builder().formatVersion("1.1").localVariant(it -> it.name(variantName)).build();
+	}
+
+	private static String expectedContent(GradleModuleMetadata metadata) throws IOException {
+		val writer = new StringWriter();
+		new GradleModuleMetadataWriter(writer).write(metadata);
+		return writer.toString();
+	}
+
+	private static String content(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), UTF_8);
+	}
+}
@@ -0,0 +1,69 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.function.Consumer;
+
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Attribute.ofAttribute;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Capability.ofCapability;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Exclude.ofExclude;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class GradleModuleMetadataInterningTest {
+	private static final Consumer<GradleModuleMetadata.LocalVariant.Builder> VARIANT = variant -> variant
+		.attribute(ofAttribute("org.gradle.usage", "java-api"))
+		.capability(ofCapability("com.example", "foo", "1.0"))
+		.dependency(it -> it.name("bar").exclude(ofExclude("commons-logging", "commons-logging")).attribute(ofAttribute("org.gradle.usage", "java-api")));
+
+	@Test
+	void sharesEqualValuesAcrossVariantsOfTheSameMetadata() {
+		val metadata = GradleModuleMetadata.builder().formatVersion("1.1")
+			.localVariant(VARIANT.andThen(it -> it.name("foo")))
+			.localVariant(VARIANT.andThen(it -> it.name("bar")))
+			.build();
+
+		val foo = (GradleModuleMetadata.LocalVariant) metadata.getVariants().get(0);
+		val bar = (GradleModuleMetadata.LocalVariant) metadata.getVariants().get(1);
+		assertThat(bar.getAttributes().get(0), sameInstance(foo.getAttributes().get(0)));
+		assertThat(bar.getCapabilities().get(0), sameInstance(foo.getCapabilities().get(0)));
+		assertThat(bar.getDependencies().get(0).getExcludes().iterator().next(), sameInstance(foo.getDependencies().get(0).getExcludes().iterator().next()));
+		assertThat(bar.getDependencies().get(0).getAttributes().get(0), sameInstance(foo.getAttributes().get(0)));
+	}
+
+	@Test
+	void doesNotShareValuesAcrossMetadata() {
+		val foo = GradleModuleMetadata.builder().formatVersion("1.1").localVariant(VARIANT.andThen(it -> it.name("foo"))).build();
+		val bar = GradleModuleMetadata.builder().formatVersion("1.1").localVariant(VARIANT.andThen(it -> it.name("foo"))).build();
+
+		assertThat(bar, equalTo(foo));
+		assertThat(attribute(bar), not(sameInstance(attribute(foo))));
+	}
+
+	@Test
+	void sharesEqualValuesAcrossReadVariants() throws IOException {
+		val metadata = GradleModuleMetadata.builder().formatVersion("1.1")
+			.localVariant(VARIANT.andThen(it -> it.name("foo")))
+			.localVariant(VARIANT.andThen(it -> it.name("bar")))
+			.build();
+		val writer = new StringWriter();
+		new GradleModuleMetadataWriter(writer).write(metadata);
+
+		val result = new GradleModuleMetadataReader(new StringReader(writer.toString())).read();
+		assertThat(result, equalTo(metadata));
+		val foo = (GradleModuleMetadata.LocalVariant) result.getVariants().get(0);
+		val bar = (GradleModuleMetadata.LocalVariant) result.getVariants().get(1);
+		assertThat(bar.getAttributes().get(0), sameInstance(foo.getAttributes().get(0)));
+		assertThat(bar.getDependencies().get(0).getAttributes().get(0), sameInstance(foo.getAttributes().get(0)));
+	}
+
+	private static GradleModuleMetadata.Attribute attribute(GradleModuleMetadata metadata) {
+		return ((GradleModuleMetadata.LocalVariant) metadata.getVariants().get(0)).getAttributes().get(0);
+	}
+}
@@ -0,0 +1,139 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Attribute.ofAttribute;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Capability.ofCapability;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Component.ofComponent;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Exclude.ofExclude;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GradleModuleMetadataReaderTest {
+	private final GradleModuleMetadata metadata = GradleModuleMetadata.builder()
+		.formatVersion("1.1")
+		.component(ofComponent("com.example", "foo", "1.0"))
+		.createdBy(GradleModuleMetadata.CreatedBy.ofGradle("6.8.1", "abc"))
+		.localVariant(variant -> variant.name("apiElements")
+			.attribute(ofAttribute("org.gradle.usage", "java-api"))
+			.capability(ofCapability("com.example", "foo", "1.0"))
+			.dependency(it -> it.group("com.example").name("bar")
+				.version(GradleModuleMetadata.Version.builder().strictly("[1.0, 2.0)").preferred("1.5").reject("1.3").build())
+				.exclude(ofExclude("commons-logging", "commons-logging"))
+				.reason("needed")
+				.attribute(ofAttribute("org.gradle.category", "library"))
+				.requestedCapability(ofCapability("com.example", "bar-test-fixtures")))
+			.dependencyConstraint(it -> it.group("com.example").module("baz").version(GradleModuleMetadata.Version.requires("2.0")).reason("aligned"))
+			.file(it -> it.name("foo-1.0.jar").url("foo-1.0.jar").size(42).sha1("sha1").md5("md5")))
+		.remoteVariant(variant -> variant.name("runtimeElements")
+			.attribute(ofAttribute("org.gradle.usage", "java-runtime"))
+			.availableAt(it -> it.url("../../foo-jvm/1.0/foo-jvm-1.0.module").group("com.example").module("foo-jvm").version("1.0"))
+			.capability(ofCapability("com.example", "foo", "1.0")))
+		.build();
+
+	@Test
+	void canReadWrittenMetadata() throws IOException {
+		assertThat(reader(json(metadata)).read(), equalTo(metadata));
+	}
+
+	@Test
+	void decodesVariantsWithAvailableAtAsRemoteVariants() throws IOException {
+		val variants = reader(json(metadata)).read().getVariants();
+		assertThat(variants.get(0), instanceOf(GradleModuleMetadata.LocalVariant.class));
+		assertThat(variants.get(1), instanceOf(GradleModuleMetadata.RemoteVariant.class));
+	}
+
+	@Test
+	void canReadComponentWithoutReadingVariants() throws IOException {
+		val json = "{\"formatVersion\": \"1.1\", \"component\": {\"group\": \"com.example\", \"module\": \"foo\", \"version\": \"1.0\"}, \"variants\": [ not json";
+		assertThat(reader(json).readComponent(), equalTo(Optional.of(ofComponent("com.example", "foo", "1.0"))));
+	}
+
+	@Test
+	void returnsEmptyComponentWhenAbsent() throws IOException {
+		assertThat(reader("{\"formatVersion\": \"1.1\", \"variants\": []}").readComponent(), equalTo(Optional.empty()));
+	}
+
+	@Test
+	void streamsEachVariant() throws IOException {
+		val variants = new ArrayList<GradleModuleMetadata.Variant>();
+		reader(json(metadata)).readVariants(variants::add);
+		assertThat(variants, equalTo(metadata.getVariants()));
+	}
+
+	@Test
+	void canSkipDependenciesAndFiles() throws IOException {
+		val variant = (GradleModuleMetadata.LocalVariant) reader(json(metadata)).skipDependencies().skipFiles().read().getVariants().get(0);
+		assertThat(variant.getName(), equalTo("apiElements"));
+		assertThat(variant.getCapabilities(), contains(ofCapability("com.example", "foo", "1.0")));
+		assertThat(variant.getDependencies(), empty());
+		assertThat(variant.getDependencyConstraints(), empty());
+		assertThat(variant.getFiles(), empty());
+	}
+
+	@Test
+	void readsPrimitiveAttributeValues() throws IOException {
+		val json = "{\"formatVersion\": \"1.1\", \"variants\": [{\"name\": \"foo\", \"attributes\": {\"org.gradle.jvm.version\": 8, \"org.gradle.test\": true}}]}";
+		val variant = (GradleModuleMetadata.LocalVariant) reader(json).read().getVariants().get(0);
+		assertThat(variant.getAttributes(), contains(ofAttribute("org.gradle.jvm.version", 8), ofAttribute("org.gradle.test", true)));
+	}
+
+	@Test
+	void ignoresUnknownProperties() throws IOException {
+		val json = "{\"formatVersion\": \"1.1\", \"unknown\": {\"foo\": [1, 2]}, \"variants\": [{\"name\": \"foo\", \"unknown\": \"bar\"}]}";
+		assertThat(reader(json).read(), equalTo(GradleModuleMetadata.builder().formatVersion("1.1").localVariant(it -> it.name("foo")).build()));
+	}
+
+	@Test
+	void throwsExceptionForMissingFormatVersion() {
+		val json = "{\"variants\": [{\"name\": \"foo\"}]}";
+		val ex = assertThrows(IOException.class, () -> reader(json).read());
+		assertThat(ex.getMessage(), equalTo("Malformed Gradle module metadata."));
+	}
+
+	@Test
+	void throwsExceptionForMissingAvailableAtUrl() {
+		val json = "{\"formatVersion\": \"1.1\", \"variants\": [{\"name\": \"foo\", \"available-at\": {\"url\": null, \"group\": \"com.example\", \"module\": \"foo-jvm\", \"version\": \"1.0\"}}]}";
+		val ex = assertThrows(IOException.class, () -> reader(json).readVariants(it -> {}));
+		assertThat(ex.getMessage(), equalTo("Malformed Gradle module metadata."));
+	}
+
+	@Test
+	void throwsExceptionForNullFormatVersion() {
+		val json = "{\"formatVersion\": null, \"variants\": []}";
+		val ex = assertThrows(IOException.class, () -> reader(json).read());
+		assertThat(ex.getMessage(), equalTo("Malformed Gradle module metadata."));
+	}
+
+	@Test
+	void propagatesExceptionsOfVariantActionAsIs() {
+		val json = "{\"formatVersion\": \"1.1\", \"variants\": [{\"name\": \"foo\"}]}";
+		val failure = new NullPointerException();
+		assertThat(assertThrows(NullPointerException.class, () -> reader(json).readVariants(it -> { throw failure; })), sameInstance(failure));
+
+		val otherFailure = new IllegalStateException();
+		assertThat(assertThrows(IllegalStateException.class, () -> reader(json).readVariants(it -> { throw otherFailure; })), sameInstance(otherFailure));
+	}
+
+	private static GradleModuleMetadataReader reader(String json) {
+		return new GradleModuleMetadataReader(new StringReader(json));
+	}
+
+	private static String json(GradleModuleMetadata metadata) throws IOException {
+		val writer = new StringWriter();
+		new GradleModuleMetadataWriter(writer).write(metadata);
+		return writer.toString();
+	}
+}
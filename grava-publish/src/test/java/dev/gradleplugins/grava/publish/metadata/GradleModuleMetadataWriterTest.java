@@ -12,7 +12,9 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Attribute.ofAttribute;
+import static dev.gradleplugins.grava.publish.metadata.GradleModuleMetadata.Exclude.ofExclude;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 
 class GradleModuleMetadataWriterTest {
@@ -57,6 +59,41 @@ class GradleModuleMetadataWriterTest {
 		)));
 	}
 
+	@Test
+	void canSerializeWithoutWhitespaces() throws IOException {
+		val output = json(GradleModuleMetadataWriter.Format.Compact, variant(builder -> builder.dependency(it -> it.name("dep1"))));
+		assertThat(output, equalTo("{\"formatVersion\":\"1.1\",\"variants\":[{\"name\":\"foo\",\"attributes\":{\"org.gradle.usage\":\"usage\"},\"dependencies\":[{\"name\":\"dep1\"}]}]}"));
+	}
+
+	@Test
+	void canSerializeWithSortedPropertiesWithoutWhitespaces() throws IOException {
+		val output = json(GradleModuleMetadataWriter.Format.Canonical, variant(builder -> builder.attribute(ofAttribute("org.gradle.category", "library")).dependency(it -> it.group("com.example").name("dep1"))));
+		assertThat(output, equalTo("{\"formatVersion\":\"1.1\",\"variants\":[{\"attributes\":{\"org.gradle.category\":\"library\",\"org.gradle.usage\":\"usage\"},\"dependencies\":[{\"group\":\"com.example\",\"name\":\"dep1\"}],\"name\":\"foo\"}]}"));
+	}
+
+	@Test
+	void serializesEquivalentMetadataToSameCanonicalOutput() throws IOException {
+		val first = json(GradleModuleMetadataWriter.Format.Canonical, builder -> builder.localVariant(it -> it.name("foo").attribute(ofAttribute("a", "1")).attribute(ofAttribute("b", "2"))));
+		val second = json(GradleModuleMetadataWriter.Format.Canonical, builder -> builder.localVariant(it -> it.name("foo").attribute(ofAttribute("b", "2")).attribute(ofAttribute("a", "1"))));
+		assertThat(first, equalTo(second));
+	}
+
+	@Test
+	void serializesEqualExcludesToSameCanonicalOutput() throws IOException {
+		val first = json(GradleModuleMetadataWriter.Format.Canonical, variant(builder -> builder.dependency(it -> it.name("dep1").exclude(ofExclude("org.b", "b")).exclude(ofExclude("org.a", "z")).exclude(ofExclude("org.a", "a")))));
+		val second = json(GradleModuleMetadataWriter.Format.Canonical, variant(builder -> builder.dependency(it -> it.name("dep1").exclude(ofExclude("org.a", "a")).exclude(ofExclude("org.b", "b")).exclude(ofExclude("org.a", "z")))));
+		assertThat(first, equalTo(second));
+		assertThat(first, containsString("\"excludes\":[{\"group\":\"org.a\",\"module\":\"a\"},{\"group\":\"org.a\",\"module\":\"z\"},{\"group\":\"org.b\",\"module\":\"b\"}]"));
+	}
+
+	@Test
+	void escapesHtmlSensitiveCharactersInEveryFormat() throws IOException {
+		val expected = "\"name\": \"lib\\u003c\\u0026\\u003e\\u003d\\u0027\"";
+		assertThat(json(builder -> builder.localVariant(it -> it.name("lib<&>='"))), containsString(expected));
+		assertThat(json(GradleModuleMetadataWriter.Format.Compact, builder -> builder.localVariant(it -> it.name("lib<&>='"))), containsString(expected.replace(" ", "")));
+		assertThat(json(GradleModuleMetadataWriter.Format.Canonical, builder -> builder.localVariant(it -> it.name("lib<&>='"))), containsString(expected.replace(" ", "")));
+	}
+
 	private static Consumer<GradleModuleMetadata.Builder> variant(Consumer<? super GradleModuleMetadata.LocalVariant.Builder> action) {
 		return builder -> builder.localVariant(
 			((Consumer<GradleModuleMetadata.LocalVariant.Builder>)it -> it.name("foo").attribute(ofAttribute("org.gradle.usage", "usage")))
@@ -64,8 +101,12 @@ class GradleModuleMetadataWriterTest {
 	}
 
 	private static String json(Consumer<? super GradleModuleMetadata.Builder> action) throws IOException {
+		return json(GradleModuleMetadataWriter.Format.Pretty, action);
+	}
+
+	private static String json(GradleModuleMetadataWriter.Format format, Consumer<? super GradleModuleMetadata.Builder> action) throws IOException {
 		val output = new ByteArrayOutputStream();
-		try (val writer = new GradleModuleMetadataWriter(new OutputStreamWriter(output))) {
+		try (val writer = new GradleModuleMetadataWriter(new OutputStreamWriter(output), format)) {
 			val builder = GradleModuleMetadata.builder().formatVersion("1.1");
 			action.accept(builder);
 			writer.write(builder.build());
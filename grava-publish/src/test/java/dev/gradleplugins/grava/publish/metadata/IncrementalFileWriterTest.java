@@ -0,0 +1,103 @@
+package dev.gradleplugins.grava.publish.metadata;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class IncrementalFileWriterTest {
+	private static final FileTime PAST = FileTime.from(1, TimeUnit.DAYS);
+	@TempDir Path testDirectory;
+
+	@Test
+	void writesMissingFile() throws IOException {
+		val file = testDirectory.resolve("build/publications/foo.module");
+
+		assertThat(GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("foo"))), is(true));
+		assertThat(content(file), equalTo(expectedContent(metadata("foo"))));
+	}
+
+	@Test
+	void doesNotTouchFileWithSameContent() throws IOException {
+		val file = testDirectory.resolve("foo.module");
+		GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("foo")));
+		Files.setLastModifiedTime(file, PAST);
+
+		assertThat(GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("foo"))), is(false));
+		assertThat(Files.getLastModifiedTime(file), equalTo(PAST));
+	}
+
+	@Test
+	void replacesFileWithChangedContent() throws IOException {
+		val file = testDirectory.resolve("foo.module");
+		GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("foo")));
+		Files.setLastModifiedTime(file, PAST);
+
+		assertThat(GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("bar"))), is(true));
+		assertThat(content(file), equalTo(expectedContent(metadata("bar"))));
+	}
+
+	@Test
+	void replacesFileWithSameSizeButDifferentContent() throws IOException {
+		val file = testDirectory.resolve("foo.module");
+		GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("foo")));
+
+		assertThat(GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata("baz"))), is(true));
+		assertThat(content(file), equalTo(expectedContent(metadata("baz"))));
+	}
+
+	@Test
+	void canWriteAnotherFileWhileWriting() throws IOException {
+		val foo = testDirectory.resolve("foo.module");
+		val bar = testDirectory.resolve("bar.module");
+		GradleModuleMetadata.withIncrementalWriter(foo.toFile(), write(metadata("foo")).andThen(it -> incrementallyWrite(bar, metadata("bar"))));
+
+		assertThat(content(foo), equalTo(expectedContent(metadata("foo"))));
+		assertThat(content(bar), equalTo(expectedContent(metadata("bar"))));
+	}
+
+	private static GradleModuleMetadata metadata(String variantName) {
+		return GradleModuleMetadata.builder().formatVersion("1.1").localVariant(it -> it.name(variantName)).build();
+	}
+
+	private static Consumer<GradleModuleMetadataWriter> write(GradleModuleMetadata metadata) {
+		return writer -> {
+			try {
+				writer.write(metadata);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	private static void incrementallyWrite(Path file, GradleModuleMetadata metadata) {
+		try {
+			GradleModuleMetadata.withIncrementalWriter(file.toFile(), write(metadata));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String expectedContent(GradleModuleMetadata metadata) throws IOException {
+		val writer = new StringWriter();
+		new GradleModuleMetadataWriter(writer).write(metadata);
+		return writer.toString();
+	}
+
+	private static String content(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), UTF_8);
+	}
+}
@@ -1,14 +1,36 @@
 package dev.gradleplugins.grava.testing;
 
 import lombok.val;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.function.FailableRunnable;
 import org.opentest4j.MultipleFailuresError;
 import org.opentest4j.TestAbortedException;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
 public abstract class AbstractTester {
+	private int parallelism = 1;
+	private final List<TestCaseListener> listeners = new CopyOnWriteArrayList<>();
+	private int shardIndex = 0;
+	private int shardCount = 1;
+	private TestCaseWorkQueue workQueue = null;
+	private TestCaseHistory history = null;
+	private int maximumFailures = Integer.MAX_VALUE;
+
 	protected final List<TestCase> getTesters() {
 		val result = new ArrayList<TestCase>();
 		collectTesters(result);
@@ -17,24 +39,220 @@ public abstract class AbstractTester {
 
 	protected abstract void collectTesters(List<TestCase> testers);
 
+	/**
+	 * Configures the number of test cases to execute concurrently in {@link #executeAllTestCases()}.
+	 *
+	 * @param parallelism  the number of concurrent workers, must be positive
+	 */
+	protected final void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	protected final int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Only executes the test cases of the specified shard, the test cases being assigned to a shard by a stable hash of their group name, see {@link TestCase#getGroupName()}.
+	 * Each shard, i.e. a Gradle test fork or a CI machine, executes a disjoint part of the test cases.
+	 *
+	 * @param index  the zero-based index of the shard to execute
+	 * @param count  the number of shards, must be positive
+	 */
+	protected final void setShard(int index, int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Shard count must be at least 1, but was " + count);
+		}
+		if (index < 0 || index >= count) {
+			throw new IllegalArgumentException("Shard index must be between 0 and " + (count - 1) + ", but was " + index);
+		}
+		this.shardIndex = index;
+		this.shardCount = count;
+	}
+
+	/**
+	 * Only executes the test cases claimed through the work queue in the specified directory, see {@link TestCaseWorkQueue}.
+	 * The test cases claimed by another JVM are aborted.
+	 *
+	 * @param directory  the work queue directory, shared by the JVMs and unique to the run, must not be null
+	 */
+	protected final void setWorkQueue(Path directory) {
+		this.workQueue = TestCaseWorkQueue.of(directory);
+	}
+
+	/**
+	 * Executes the test cases which failed recently first, then the shortest first, according to the history recorded in the specified file.
+	 * The history is updated as each test case completes.
+	 *
+	 * @param historyFile  the history file, created when missing, must not be null
+	 */
+	protected final void setHistory(Path historyFile) {
+		if (history != null) {
+			listeners.remove(history);
+		}
+		history = TestCaseHistory.of(historyFile);
+		listeners.add(history);
+	}
+
+	/**
+	 * Stops executing test cases in {@link #executeAllTestCases()} once the specified number of test cases failed.
+	 * The test cases already executing complete, the remaining ones are not executed.
+	 *
+	 * @param maximumFailures  the number of failures to stop after, must be positive
+	 */
+	protected final void setFailFast(int maximumFailures) {
+		if (maximumFailures < 1) {
+			throw new IllegalArgumentException("Maximum failures must be at least 1, but was " + maximumFailures);
+		}
+		this.maximumFailures = maximumFailures;
+	}
+
+	/**
+	 * Registers a listener notified of the timing of each test case phase.
+	 *
+	 * @param listener  the listener to notify, must not be null
+	 */
+	protected final void addTestCaseListener(TestCaseListener listener) {
+		listeners.add(Objects.requireNonNull(listener));
+	}
+
+	/**
+	 * Returns a listener broadcasting to all registered listeners, for test cases reporting work happening outside their phases.
+	 *
+	 * @return a listener, never null
+	 */
+	protected final TestCaseListener getTestCaseListener() {
+		return new TestCaseListener() {
+			@Override
+			public void phaseCompleted(TestCase testCase, Phase phase, long durationNanos, Throwable failure) {
+				listeners.forEach(it -> it.phaseCompleted(testCase, phase, durationNanos, failure));
+			}
+
+			@Override
+			public void retriedOperationCompleted(TestCase testCase, String operation, int attempts, long durationNanos) {
+				listeners.forEach(it -> it.retriedOperationCompleted(testCase, operation, attempts, durationNanos));
+			}
+
+			@Override
+			public void retriedOperationFailed(TestCase testCase, String operation, long durationNanos, Throwable failure) {
+				listeners.forEach(it -> it.retriedOperationFailed(testCase, operation, durationNanos, failure));
+			}
+
+			@Override
+			public void buildProfiled(TestCase testCase, BuildProfile profile) {
+				listeners.forEach(it -> it.buildProfiled(testCase, profile));
+			}
+		};
+	}
+
 	protected final void executeAllTestCases() {
 		val failures = new ArrayList<TestCaseFailure>();
-		stream().forEach(testCase -> {
-			try {
-				testCase.setUp();
-				try {
-					testCase.execute();
-				} finally {
-					testCase.tearDown();
+		val skipped = new ArrayList<PrerequisiteFailedException>();
+		val skippedCount = new AtomicInteger();
+		if (parallelism == 1) {
+			for (TestCase testCase : (Iterable<TestCase>) stream()::iterator) {
+				if (failures.size() >= maximumFailures) {
+					skippedCount.incrementAndGet();
+					continue;
 				}
-			} catch (TestAbortedException ex) {
-				// ignore test
-			} catch (Throwable throwable) {
-				failures.add(new TestCaseFailure(testCase.getDisplayName(), throwable));
+				collect(execute(testCase), failures, skipped);
 			}
-		});
+		} else {
+			executeAllTestCasesInParallel(skippedCount, failures, skipped);
+		}
 		if (!failures.isEmpty()) {
-			throw new MultipleFailuresError("Plugin is not well-behaved", failures);
+			if (skippedCount.get() > 0) {
+				throw new TestCaseFailures("Plugin is not well-behaved (stopped after " + failures.size() + " failures, " + skippedCount.get() + " test cases not executed)", failures, skipped);
+			}
+			throw new TestCaseFailures("Plugin is not well-behaved", failures, skipped);
+		}
+	}
+
+	private void executeAllTestCasesInParallel(AtomicInteger skippedCount, List<TestCaseFailure> failures, List<PrerequisiteFailedException> skipped) {
+		val executor = Executors.newFixedThreadPool(parallelism, new TesterThreadFactory());
+		val failureCount = new AtomicInteger();
+		try {
+			final List<Future<Throwable>> results = stream().map(testCase -> executor.submit(() -> {
+				if (failureCount.get() >= maximumFailures) {
+					skippedCount.incrementAndGet();
+					return null;
+				}
+				val result = execute(testCase);
+				if (result instanceof TestCaseFailure) {
+					failureCount.incrementAndGet();
+				}
+				return result;
+			})).collect(toList());
+
+			// Collect in submission order so failures are reported the same way as sequential execution
+			for (Future<Throwable> result : results) {
+				try {
+					collect(result.get(), failures, skipped);
+				} catch (ExecutionException e) {
+					ExceptionUtils.rethrow(e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			ExceptionUtils.rethrow(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void collect(Throwable result, List<TestCaseFailure> failures, List<PrerequisiteFailedException> skipped) {
+		if (result instanceof TestCaseFailure) {
+			failures.add((TestCaseFailure) result);
+		} else if (result instanceof PrerequisiteFailedException) {
+			skipped.add((PrerequisiteFailedException) result);
+		}
+	}
+
+	/**
+	 * Executes the specified test case.
+	 *
+	 * @param testCase  the test case to execute, must not be null
+	 * @return the {@link TestCaseFailure} of a failed test case, the {@link PrerequisiteFailedException} of a skipped test case or null
+	 */
+	private static Throwable execute(TestCase testCase) {
+		try {
+			testCase.setUp();
+			try {
+				testCase.execute();
+			} finally {
+				testCase.tearDown();
+			}
+		} catch (PrerequisiteFailedException ex) {
+			return ex;
+		} catch (TestAbortedException ex) {
+			// ignore test
+		} catch (Throwable throwable) {
+			return new TestCaseFailure(testCase.getDisplayName(), throwable);
+		}
+		return null;
+	}
+
+	/**
+	 * Lists the test cases skipped because of a failed prerequisite after the failures, grouped by prerequisite.
+	 */
+	private static final class TestCaseFailures extends MultipleFailuresError {
+		private final List<PrerequisiteFailedException> skipped;
+
+		public TestCaseFailures(String heading, List<? extends Throwable> failures, List<PrerequisiteFailedException> skipped) {
+			super(heading, failures);
+			this.skipped = skipped;
+		}
+
+		@Override
+		public String getMessage() {
+			val builder = new StringBuilder(super.getMessage());
+			skipped.stream().collect(groupingBy(PrerequisiteFailedException::getPrerequisiteDisplayName, LinkedHashMap::new, toList())).forEach((prerequisite, testCases) -> {
+				builder.append(System.lineSeparator()).append("\tskipped (prerequisite '").append(prerequisite).append("' failed)");
+				testCases.forEach(it -> builder.append(System.lineSeparator()).append("\t\t").append(it.getDisplayName()));
+			});
+			return builder.toString();
 		}
 	}
 
@@ -44,7 +262,137 @@ public abstract class AbstractTester {
 		}
 	}
 
+	private static final class TesterThreadFactory implements ThreadFactory {
+		private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+		private final int poolNumber = POOL_NUMBER.incrementAndGet();
+		private final AtomicInteger threadNumber = new AtomicInteger();
+		// Test cases may rely on the context class loader, i.e. to locate the plugin under test metadata
+		private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			val result = new Thread(runnable, "grava-tester-" + poolNumber + "-worker-" + threadNumber.incrementAndGet());
+			result.setDaemon(true);
+			result.setContextClassLoader(contextClassLoader);
+			return result;
+		}
+	}
+
+	/**
+	 * Times each phase of a test case on behalf of the listeners.
+	 * The display name is kept as-is so the timing doesn't change how test cases are reported.
+	 */
+	private static final class InstrumentedTestCase implements TestCase {
+		private final TestCase testCase;
+		private final TestCaseListener listener;
+
+		private InstrumentedTestCase(TestCase testCase, TestCaseListener listener) {
+			this.testCase = testCase;
+			this.listener = listener;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName();
+		}
+
+		@Override
+		public String getGroupName() {
+			return testCase.getGroupName();
+		}
+
+		@Override
+		public void setUp() throws Throwable {
+			time(TestCaseListener.Phase.SetUp, testCase::setUp);
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			time(TestCaseListener.Phase.Execute, testCase::execute);
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			time(TestCaseListener.Phase.TearDown, testCase::tearDown);
+		}
+
+		private void time(TestCaseListener.Phase phase, FailableRunnable<Throwable> action) throws Throwable {
+			val startTime = System.nanoTime();
+			Throwable failure = null;
+			try {
+				action.run();
+			} catch (Throwable t) {
+				failure = t;
+				throw t;
+			} finally {
+				listener.phaseCompleted(testCase, phase, System.nanoTime() - startTime, failure);
+			}
+		}
+	}
+
+	/**
+	 * Claims the group of the test case from the work queue before executing it, aborting it when claimed by another JVM.
+	 */
+	private static final class ClaimedTestCase implements TestCase {
+		private final TestCase testCase;
+		private final TestCaseWorkQueue workQueue;
+		private boolean claimed = false;
+
+		private ClaimedTestCase(TestCase testCase, TestCaseWorkQueue workQueue) {
+			this.testCase = testCase;
+			this.workQueue = workQueue;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName();
+		}
+
+		@Override
+		public String getGroupName() {
+			return testCase.getGroupName();
+		}
+
+		@Override
+		public void setUp() throws Throwable {
+			if (!workQueue.claim(getGroupName())) {
+				throw new TestAbortedException("Test case claimed by another JVM");
+			}
+			claimed = true;
+			testCase.setUp();
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			testCase.execute();
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			if (claimed) {
+				testCase.tearDown();
+			}
+		}
+	}
+
 	public final Stream<TestCase> stream() {
-		return getTesters().stream();
+		Stream<TestCase> result = getTesters().stream();
+		if (history != null) {
+			// Sorting is stable, test cases without history keep their order
+			result = result.sorted(history.prioritized());
+		}
+		if (shardCount > 1) {
+			// String#hashCode is specified, so every JVM assigns the same shards
+			result = result.filter(it -> Math.floorMod(it.getGroupName().hashCode(), shardCount) == shardIndex);
+		}
+		if (workQueue != null) {
+			val queue = workQueue;
+			result = result.map(it -> new ClaimedTestCase(it, queue));
+		}
+		if (!listeners.isEmpty()) {
+			val listener = getTestCaseListener();
+			result = result.map(it -> new InstrumentedTestCase(it, listener));
+		}
+		return result;
 	}
 }
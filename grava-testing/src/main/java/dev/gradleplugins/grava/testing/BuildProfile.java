@@ -0,0 +1,170 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Timings of a build executed by a test case, captured by the profiling init script.
+ *
+ * The init script records the build lifecycle events and listens to the build operations applying the plugin under test.
+ * The plugin apply time relies on Gradle internal build operations, it is missing when they aren't available.
+ * Each timing is missing when the build failed before reaching the corresponding lifecycle event.
+ */
+public final class BuildProfile {
+	static final String PROFILE_FILE_NAME = "build-profile.properties";
+	private static final String SETTINGS_EVALUATED = "settingsEvaluated";
+	private static final String PROJECTS_LOADED = "projectsLoaded";
+	private static final String PROJECTS_EVALUATED = "projectsEvaluated";
+	private static final String TASK_GRAPH_READY = "taskGraphReady";
+	private static final String PLUGIN_APPLY = "pluginApply";
+	private final Properties properties;
+
+	private BuildProfile(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Returns the time spent evaluating the settings, including the init scripts.
+	 */
+	public Optional<Duration> getSettingsDuration() {
+		return nanos(SETTINGS_EVALUATED).map(Duration::ofNanos);
+	}
+
+	/**
+	 * Returns the time spent configuring the projects, from loaded to evaluated.
+	 */
+	public Optional<Duration> getConfigurationDuration() {
+		return between(PROJECTS_LOADED, PROJECTS_EVALUATED);
+	}
+
+	/**
+	 * Returns the time spent calculating the task graph, from the projects evaluated to the task graph ready.
+	 */
+	public Optional<Duration> getTaskGraphDuration() {
+		return between(PROJECTS_EVALUATED, TASK_GRAPH_READY);
+	}
+
+	/**
+	 * Returns the time spent applying the plugin under test, including the plugins it applies, summed for each target it is applied to.
+	 */
+	public Optional<Duration> getPluginApplyDuration() {
+		return nanos(PLUGIN_APPLY).map(Duration::ofNanos);
+	}
+
+	private Optional<Duration> between(String startEvent, String endEvent) {
+		return nanos(startEvent).flatMap(start -> nanos(endEvent).map(end -> Duration.ofNanos(end - start)));
+	}
+
+	private Optional<Long> nanos(String key) {
+		return Optional.ofNullable(properties.getProperty(key)).map(Long::parseLong);
+	}
+
+	@Override
+	public String toString() {
+		return "settings " + format(getSettingsDuration()) + ", configuration " + format(getConfigurationDuration()) + ", task graph " + format(getTaskGraphDuration()) + ", plugin apply " + format(getPluginApplyDuration());
+	}
+
+	private static String format(Optional<Duration> duration) {
+		return duration.map(it -> String.format("%.3fs", it.toNanos() / 1_000_000_000.0)).orElse("n/a");
+	}
+
+	/**
+	 * Reads the profile written by the profiling init script.
+	 *
+	 * @param file  the profile file, must not be null
+	 * @return the build profile, never null
+	 * @throws IOException if an I/O error occurs
+	 */
+	static BuildProfile read(Path file) throws IOException {
+		val properties = new Properties();
+		try (InputStream inStream = Files.newInputStream(file)) {
+			properties.load(inStream);
+		}
+		return new BuildProfile(properties);
+	}
+
+	/**
+	 * Returns the profiling init script, it must be the first init script of the build to profile the other init scripts.
+	 * The profile is written to {@value #PROFILE_FILE_NAME} in the build directory, each timing in nanoseconds since the init script was evaluated.
+	 *
+	 * @param pluginId  the plugin id under test, or null if unknown
+	 * @param pluginType  the plugin type under test, or null if unknown
+	 * @return the init script content, never null
+	 */
+	static String initScript(@Nullable String pluginId, @Nullable Class<?> pluginType) {
+		return String.join("\n",
+			"def startTime = System.nanoTime()",
+			"def events = new java.util.concurrent.ConcurrentHashMap()",
+			"def record = { name -> events.put(name, System.nanoTime() - startTime) }",
+			"",
+			"// Internal API, the plugin apply time is left out when unavailable",
+			"def pluginApplyStartTimes = new java.util.concurrent.ConcurrentHashMap()",
+			"def pluginApplyTime = new java.util.concurrent.atomic.AtomicLong()",
+			"def isPluginUnderTest = { details ->",
+			"  if (details == null || !details.metaClass.respondsTo(details, 'getPluginId')) {",
+			"    return false",
+			"  }",
+			"  return " + pluginUnderTestCondition(pluginId, pluginType),
+			"}",
+			"def listenerManager = null",
+			"def listener = null",
+			"try {",
+			"  listenerManager = gradle.services.get(org.gradle.internal.operations.BuildOperationListenerManager)",
+			"  listener = [",
+			"    started: { descriptor, event -> if (isPluginUnderTest(descriptor.details)) { pluginApplyStartTimes.put(descriptor.id, System.nanoTime()) } },",
+			"    progress: { id, event -> },",
+			"    finished: { descriptor, event ->",
+			"      def applyStartTime = pluginApplyStartTimes.remove(descriptor.id)",
+			"      if (applyStartTime != null) { pluginApplyTime.addAndGet(System.nanoTime() - applyStartTime) }",
+			"    }",
+			"  ].asType(org.gradle.internal.operations.BuildOperationListener)",
+			"  listenerManager.addListener(listener)",
+			"} catch (Throwable ignored) {",
+			"  listenerManager = null",
+			"}",
+			"",
+			"settingsEvaluated { record('" + SETTINGS_EVALUATED + "') }",
+			"projectsLoaded { record('" + PROJECTS_LOADED + "') }",
+			"projectsEvaluated { record('" + PROJECTS_EVALUATED + "') }",
+			"gradle.taskGraph.whenReady { record('" + TASK_GRAPH_READY + "') }",
+			"buildFinished {",
+			"  if (listenerManager != null) {",
+			"    // The listener would otherwise leak into the next builds of the daemon",
+			"    listenerManager.removeListener(listener)",
+			"    events.put('" + PLUGIN_APPLY + "', pluginApplyTime.get())",
+			"  }",
+			"  def properties = new Properties()",
+			"  events.each { key, value -> properties.setProperty(key, value.toString()) }",
+			"  new File(gradle.startParameter.currentDir, '" + PROFILE_FILE_NAME + "').withOutputStream { properties.store(it, null) }",
+			"}",
+			""
+		);
+	}
+
+	private static String pluginUnderTestCondition(@Nullable String pluginId, @Nullable Class<?> pluginType) {
+		val result = new ArrayList<String>();
+		if (pluginId != null) {
+			result.add("details.pluginId == " + quote(pluginId));
+		}
+		if (pluginType != null) {
+			result.add("details.pluginClass?.name == " + quote(pluginType.getName()));
+		}
+		if (result.isEmpty()) {
+			return "false";
+		}
+		return String.join(" || ", result);
+	}
+
+	private static String quote(String s) {
+		return "'" + s.replace("\\", "\\\\").replace("'", "\\'") + "'";
+	}
+}
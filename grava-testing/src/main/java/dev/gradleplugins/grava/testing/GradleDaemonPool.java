@@ -0,0 +1,191 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.util.HashUtils;
+import lombok.val;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A Gradle user home hosting warm TestKit daemons for a plugin classpath and Gradle version.
+ *
+ * Gradle only reuses a daemon for builds sharing the same Gradle user home, Gradle version and compatible JVM arguments.
+ * Before the first lease, the pool executes a few warm-up builds concurrently, so as many daemons start and load the plugin classpath before any test case builds.
+ * The pool is pinned to the content of the plugin classpath and the Gradle version, so a lease never lands on a daemon warmed for something else.
+ * Closing the pool stops its daemons, once the outstanding leases are released.
+ */
+final class GradleDaemonPool implements AutoCloseable {
+	// NOTE: the space in the directory name is intentional
+	static final Path DEFAULT_ROOT = new File("build/tmp/test daemons").toPath();
+	private final Path directory;
+	private final int warmDaemonCount;
+	private final BiConsumer<Path, Path> warmUp;
+	private final Thread shutdownHook = new Thread(this::stopDaemons, "gradle-daemon-pool-stop");
+	private boolean warm = false;
+	private boolean closed = false;
+	private int leaseCount = 0;
+
+	private GradleDaemonPool(Path directory, int warmDaemonCount, BiConsumer<Path, Path> warmUp) {
+		this.directory = directory;
+		this.warmDaemonCount = warmDaemonCount;
+		this.warmUp = warmUp;
+	}
+
+	/**
+	 * Creates the daemon pool for the specified plugin classpath and Gradle version.
+	 * The pool is closed when the JVM exits, if not closed before.
+	 *
+	 * @param root  the root directory of the pools, must not be null
+	 * @param pluginClasspath  the plugin classpath injected in the builds, must not be null
+	 * @param gradleVersion  the Gradle version of the builds, must not be null
+	 * @param warmDaemonCount  the number of daemons to warm up, must be positive
+	 * @param warmUp  the warm-up build, receiving the Gradle user home and a working directory, must not be null
+	 * @return a daemon pool, never null
+	 */
+	public static GradleDaemonPool of(Path root, List<? extends File> pluginClasspath, String gradleVersion, int warmDaemonCount, BiConsumer<Path, Path> warmUp) {
+		if (warmDaemonCount < 1) {
+			throw new IllegalArgumentException("Warm daemon count must be at least 1, but was " + warmDaemonCount);
+		}
+		val result = new GradleDaemonPool(root.toAbsolutePath().resolve(keyOf(pluginClasspath, gradleVersion)), warmDaemonCount, warmUp);
+		Runtime.getRuntime().addShutdownHook(result.shutdownHook);
+		return result;
+	}
+
+	/**
+	 * Computes the identity of the pool for the specified plugin classpath and Gradle version.
+	 *
+	 * @param pluginClasspath  the plugin classpath injected in the builds, must not be null
+	 * @param gradleVersion  the Gradle version of the builds, must not be null
+	 * @return a short key identifying the pool, never null
+	 */
+	public static String keyOf(List<? extends File> pluginClasspath, String gradleVersion) {
+		val digest = HashUtils.newDigest();
+		digest.update(gradleVersion.getBytes(UTF_8));
+		try {
+			for (File file : pluginClasspath) {
+				digest.update((byte) 0);
+				HashUtils.hashContent(digest, file.toPath());
+			}
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+		return HashUtils.shortHash(digest);
+	}
+
+	/**
+	 * Returns the Gradle user home hosting the daemons of this pool.
+	 *
+	 * @return the Gradle user home directory, never null
+	 */
+	public Path getGradleUserHomeDirectory() {
+		return directory.resolve("user-home");
+	}
+
+	/**
+	 * Leases the warm daemons to a single test case, warming them up first if needed.
+	 * Concurrent leases share the Gradle user home, Gradle starts another daemon when all of them are busy.
+	 *
+	 * @return a lease on the pool's Gradle user home, never null
+	 */
+	public synchronized Lease acquire() {
+		if (closed) {
+			throw new IllegalStateException("Gradle daemon pool is closed");
+		}
+		if (!warm) {
+			warmUp();
+			warm = true;
+		}
+		++leaseCount;
+		return new Lease(getGradleUserHomeDirectory());
+	}
+
+	private synchronized void release() {
+		if (--leaseCount == 0 && closed) {
+			stopDaemons();
+		}
+	}
+
+	// A failed warm-up only costs the warmth, the test cases fail with the actual problem
+	private void warmUp() {
+		val executor = Executors.newFixedThreadPool(warmDaemonCount);
+		try {
+			// All warm-up builds are in-flight together, so each one starts its own daemon
+			val builds = new ArrayList<CompletableFuture<Void>>();
+			for (int i = 0; i < warmDaemonCount; ++i) {
+				val workingDirectory = directory.resolve("warm-up-" + i);
+				builds.add(CompletableFuture.runAsync(() -> warmUp.accept(getGradleUserHomeDirectory(), workingDirectory), executor));
+			}
+			CompletableFuture.allOf(builds.toArray(new CompletableFuture[0])).exceptionally(it -> null).join();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Stops the daemons of this pool, once the outstanding leases are released, and refuses further leases.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// already shutting down, the hook stops the daemons
+			return;
+		}
+		if (leaseCount == 0) {
+			stopDaemons();
+		}
+	}
+
+	// Each daemon expires gracefully, i.e. once idle, when it no longer finds itself in the registry of its Gradle user home
+	private void stopDaemons() {
+		val daemonDirectory = getGradleUserHomeDirectory().resolve("daemon");
+		if (!Files.isDirectory(daemonDirectory)) {
+			return; // no daemon ever started
+		}
+		try (Stream<Path> stream = Files.list(daemonDirectory)) {
+			for (Path versionDirectory : stream.collect(toList())) {
+				Files.deleteIfExists(versionDirectory.resolve("registry.bin"));
+			}
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+	}
+
+	public final class Lease implements AutoCloseable {
+		private final Path gradleUserHomeDirectory;
+		private boolean released = false;
+
+		private Lease(Path gradleUserHomeDirectory) {
+			this.gradleUserHomeDirectory = gradleUserHomeDirectory;
+		}
+
+		public Path getGradleUserHomeDirectory() {
+			return gradleUserHomeDirectory;
+		}
+
+		@Override
+		public void close() {
+			if (!released) {
+				released = true;
+				release();
+			}
+		}
+	}
+}
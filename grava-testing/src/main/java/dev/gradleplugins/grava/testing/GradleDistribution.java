@@ -0,0 +1,166 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static dev.gradleplugins.grava.testing.util.HashUtils.shortHash;
+
+/**
+ * A local Gradle distribution to execute the test cases against, either an installation directory or a distribution archive, i.e. {@literal gradle-6.8.1-bin.zip}.
+ *
+ * Distribution archives are unpacked on first use and shared by every test case, tester and JVM, i.e. Gradle test forks.
+ * The unpacking holds a file lock and completes with a marker file, so an interrupted unpacking starts over on the next use.
+ */
+final class GradleDistribution {
+	// NOTE: the space in the directory name is intentional
+	static final Path DEFAULT_ROOT = new File("build/tmp/test distributions").toPath();
+	private static final String UNPACKED_MARKER_FILE_NAME = ".unpacked";
+	private static final Pattern ARCHIVE_NAME = Pattern.compile("gradle-(.+)-(bin|all)\\.zip");
+	private static final Pattern LAUNCHER_JAR_NAME = Pattern.compile("gradle-launcher-(.+)\\.jar");
+	private static final ConcurrentMap<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+	private final Path location;
+	private final String version;
+	private final Path unpackRoot;
+	private Path installationDirectory = null;
+
+	private GradleDistribution(Path location, String version, Path unpackRoot) {
+		this.location = location;
+		this.version = version;
+		this.unpackRoot = unpackRoot;
+	}
+
+	public static GradleDistribution of(Path location) {
+		return of(location, DEFAULT_ROOT);
+	}
+
+	static GradleDistribution of(Path location, Path unpackRoot) {
+		val path = location.toAbsolutePath().normalize();
+		if (Files.isDirectory(path)) {
+			val version = launcherVersionOf(path).orElseThrow(() -> new IllegalArgumentException("Not a Gradle installation, missing lib/gradle-launcher-<version>.jar: " + path));
+			return new GradleDistribution(path, version, unpackRoot);
+		}
+
+		val matcher = ARCHIVE_NAME.matcher(path.getFileName().toString());
+		if (!Files.isRegularFile(path) || !matcher.matches()) {
+			throw new IllegalArgumentException("Not a Gradle installation or distribution archive, i.e. gradle-<version>-bin.zip: " + path);
+		}
+		return new GradleDistribution(path, matcher.group(1), unpackRoot.toAbsolutePath());
+	}
+
+	private static Optional<String> launcherVersionOf(Path installationDirectory) {
+		val libDirectory = installationDirectory.resolve("lib");
+		if (!Files.isDirectory(libDirectory)) {
+			return Optional.empty();
+		}
+		try (Stream<Path> files = Files.list(libDirectory)) {
+			return files.map(it -> LAUNCHER_JAR_NAME.matcher(it.getFileName().toString())).filter(it -> it.matches()).map(it -> it.group(1)).findFirst();
+		} catch (IOException e) {
+			return ExceptionUtils.rethrow(e);
+		}
+	}
+
+	/**
+	 * Returns the location of this distribution, as specified.
+	 *
+	 * @return the installation directory or distribution archive, never null
+	 */
+	public Path getLocation() {
+		return location;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the installation directory of this distribution, unpacking the distribution archive on first call.
+	 *
+	 * @return the Gradle installation directory, never null
+	 */
+	public synchronized Path getInstallationDirectory() {
+		if (installationDirectory == null) {
+			if (Files.isDirectory(location)) {
+				installationDirectory = location;
+			} else {
+				installationDirectory = unpack(location, unpackRoot.resolve(version + "-" + hashOf(location)));
+			}
+		}
+		return installationDirectory;
+	}
+
+	private static Path unpack(Path archive, Path directory) {
+		synchronized (PROCESS_LOCKS.computeIfAbsent(directory, it -> new Object())) {
+			try {
+				Files.createDirectories(directory.getParent());
+				try (val channel = FileChannel.open(directory.resolveSibling(directory.getFileName() + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE); val lock = channel.lock()) {
+					val markerFile = directory.resolve(UNPACKED_MARKER_FILE_NAME);
+					if (!Files.exists(markerFile)) {
+						// Start over any interrupted unpacking
+						FileUtils.deleteDirectory(directory.toFile());
+						extract(archive, directory);
+						Files.createFile(markerFile);
+					}
+				}
+
+				// Distribution archives contain a single gradle-<version> directory
+				try (Stream<Path> files = Files.list(directory)) {
+					return files.filter(Files::isDirectory).findFirst().orElseThrow(() -> new IllegalStateException("Not a Gradle distribution archive, no installation directory found: " + archive));
+				}
+			} catch (IOException e) {
+				return ExceptionUtils.rethrow(e);
+			}
+		}
+	}
+
+	private static void extract(Path archive, Path directory) throws IOException {
+		Files.createDirectories(directory);
+		try (val zipFile = new ZipFile(archive.toFile())) {
+			for (ZipEntry entry : Collections.list(zipFile.entries())) {
+				val target = directory.resolve(entry.getName()).normalize();
+				if (!target.startsWith(directory)) {
+					throw new IOException("Distribution archive entry outside of the installation directory: " + entry.getName());
+				}
+
+				if (entry.isDirectory()) {
+					Files.createDirectories(target);
+				} else {
+					Files.createDirectories(target.getParent());
+					try (InputStream inStream = zipFile.getInputStream(entry)) {
+						Files.copy(inStream, target);
+					}
+				}
+			}
+		}
+	}
+
+	// Unpack a changed archive, i.e. a snapshot distribution, in a new directory
+	private static String hashOf(Path archive) {
+		try {
+			return shortHash(archive + "\0" + Files.size(archive) + ":" + Files.getLastModifiedTime(archive).toMillis());
+		} catch (IOException e) {
+			return ExceptionUtils.rethrow(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Gradle " + version + " (" + location + ")";
+	}
+}
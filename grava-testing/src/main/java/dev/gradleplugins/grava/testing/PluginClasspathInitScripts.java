@@ -0,0 +1,124 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static dev.gradleplugins.grava.testing.util.HashUtils.shortHash;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Init script content injecting the plugin classpath, computed once per tester.
+ *
+ * The classpath init script is shared by all test cases and written once to a content addressed, read-only, location.
+ * With large plugin classpath, it avoids rebuilding and rewriting the same content for each test case.
+ */
+final class PluginClasspathInitScripts {
+	// NOTE: the space in the directory name is intentional
+	private static final Path DEFAULT_ROOT = new File("build/tmp/test init scripts").toPath();
+	private final List<File> pluginClasspath;
+	private final String initScriptClasspath;
+	private final Path classpathInitScript;
+
+	private PluginClasspathInitScripts(List<File> pluginClasspath, String initScriptClasspath, Path classpathInitScript) {
+		this.pluginClasspath = pluginClasspath;
+		this.initScriptClasspath = initScriptClasspath;
+		this.classpathInitScript = classpathInitScript;
+	}
+
+	public static PluginClasspathInitScripts of(List<? extends File> pluginClasspath) {
+		val classpath = "classpath files(" + pluginClasspath.stream().map(File::toURI).map(Objects::toString).map(PluginClasspathInitScripts::quote).collect(joining(", ")) + ")";
+		val initScriptClasspath = String.join("\n",
+			"initscript {",
+			"  dependencies {",
+			"    " + classpath,
+			"  }",
+			"}"
+		);
+		val classpathInitScriptContent = String.join("\n",
+			initScriptClasspath,
+			"beforeSettings { settings ->",
+			"  settings.buildscript.dependencies {",
+			"    " + classpath,
+			"  }",
+			"  settings.include('a', 'b', 'c')", // Include sub-projects in-case the plugin misbehave on sub-projects
+			"}",
+			""
+		);
+
+		val classpathInitScript = DEFAULT_ROOT.resolve(shortHash(classpathInitScriptContent)).resolve("classpath.init.gradle").toAbsolutePath();
+		writeOnce(classpathInitScript, classpathInitScriptContent);
+
+		return new PluginClasspathInitScripts(Collections.unmodifiableList(new ArrayList<>(pluginClasspath)), initScriptClasspath, classpathInitScript);
+	}
+
+	/**
+	 * Returns the plugin classpath to inject in the build.
+	 *
+	 * @return the plugin classpath, never null
+	 */
+	public List<File> getPluginClasspath() {
+		return pluginClasspath;
+	}
+
+	/**
+	 * Returns the {@literal initscript} block adding the plugin classpath to an init script.
+	 * It must be the first statement of the init script.
+	 *
+	 * @return the {@literal initscript} block, never null
+	 */
+	public String getInitScriptClasspath() {
+		return initScriptClasspath;
+	}
+
+	/**
+	 * Returns the shared init script adding the plugin classpath to the settings script and including a few sub-projects.
+	 * The script must not be modified.
+	 *
+	 * @return the path to the shared init script, never null
+	 */
+	public Path getClasspathInitScript() {
+		return classpathInitScript;
+	}
+
+	private static String quote(String s) {
+		return "\"" + s + "\"";
+	}
+
+	private static void writeOnce(Path path, String content) {
+		if (Files.exists(path)) {
+			return; // content addressed, already written
+		}
+
+		try {
+			Files.createDirectories(path.getParent());
+			val temporaryFile = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+			Files.write(temporaryFile, content.getBytes(UTF_8));
+			try {
+				Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException | FileAlreadyExistsException e) {
+				// Another writer won the race or the file system can't move atomically, either way the content is identical
+				if (!Files.exists(path)) {
+					Files.move(temporaryFile, path);
+				}
+			} finally {
+				Files.deleteIfExists(temporaryFile);
+			}
+			path.toFile().setReadOnly();
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package dev.gradleplugins.grava.testing;
+
+import org.opentest4j.TestAbortedException;
+
+/**
+ * Aborts a test case because its prerequisite failed.
+ * Unlike other aborted test cases, the skipped test case is reported alongside the failures so the failure of the prerequisite isn't mistaken for a partial success.
+ */
+final class PrerequisiteFailedException extends TestAbortedException {
+	private final String displayName;
+	private final String prerequisiteDisplayName;
+
+	public PrerequisiteFailedException(String displayName, String prerequisiteDisplayName, Throwable cause) {
+		super("Skipped because prerequisite '" + prerequisiteDisplayName + "' failed", cause);
+		this.displayName = displayName;
+		this.prerequisiteDisplayName = prerequisiteDisplayName;
+	}
+
+	/**
+	 * Returns the display name of the skipped test case.
+	 *
+	 * @return a display name, never null
+	 */
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	/**
+	 * Returns the display name of the failed prerequisite.
+	 *
+	 * @return a display name, never null
+	 */
+	public String getPrerequisiteDisplayName() {
+		return prerequisiteDisplayName;
+	}
+}
@@ -7,6 +7,16 @@ public interface TestCase {
 		return this.getClass().getSimpleName();
 	}
 
+	/**
+	 * Returns the group of this test case, i.e. the prerequisite it depends on.
+	 * The test cases of a group are always assigned to the same shard and claimed together from a work queue.
+	 *
+	 * @return the group name, never null
+	 */
+	default String getGroupName() {
+		return getDisplayName();
+	}
+
 	default void setUp() throws Throwable {}
 
 	void execute() throws Throwable;
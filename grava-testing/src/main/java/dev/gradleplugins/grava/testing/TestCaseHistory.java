@@ -0,0 +1,217 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.opentest4j.TestAbortedException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persistent history of the test case outcomes, used to execute the likely failures and the short test cases first.
+ *
+ * Each test case, by display name, keeps an exponential moving average of its failures and its duration so the recent runs weigh the most.
+ * Each completed test case appends its run to the history file, the runs are folded into the averages and the history file compacted when the history is next opened.
+ * The history file is safe to share between threads and processes, i.e. Gradle test forks.
+ */
+final class TestCaseHistory implements TestCaseListener {
+	private static final String HEADER = "# grava test case history v1";
+	// Weight of the latest run in the moving averages
+	private static final double LATEST_RUN_WEIGHT = 0.5;
+	private static final ConcurrentMap<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+	private final Path historyFile;
+	private final Map<String, Entry> entries;
+	private final Map<TestCase, Run> runs = new IdentityHashMap<>();
+
+	private TestCaseHistory(Path historyFile, Map<String, Entry> entries) {
+		this.historyFile = historyFile;
+		this.entries = entries;
+	}
+
+	public static TestCaseHistory of(Path historyFile) {
+		val file = historyFile.toAbsolutePath().normalize();
+		return new TestCaseHistory(file, withLock(file, () -> {
+			val result = new LinkedHashMap<String, Entry>();
+			if (!readEntries(file, result)) {
+				compact(file, result);
+			}
+			return result;
+		}));
+	}
+
+	/**
+	 * Orders the test cases which failed recently first, then the shortest first.
+	 * Test cases without history are considered passing and instantaneous.
+	 *
+	 * @return a comparator of test cases, never null
+	 */
+	public synchronized Comparator<TestCase> prioritized() {
+		val snapshot = new LinkedHashMap<String, Entry>(entries);
+		Comparator<TestCase> byFailureRate = Comparator.comparingDouble(it -> -entryOf(snapshot, it).failureRate);
+		return byFailureRate.thenComparingDouble(it -> entryOf(snapshot, it).durationNanos);
+	}
+
+	private static Entry entryOf(Map<String, Entry> entries, TestCase testCase) {
+		return entries.getOrDefault(testCase.getDisplayName(), Entry.NONE);
+	}
+
+	@Override
+	public void phaseCompleted(TestCase testCase, Phase phase, long durationNanos, @Nullable Throwable failure) {
+		Run run;
+		synchronized (this) {
+			run = runs.computeIfAbsent(testCase, it -> new Run());
+			run.durationNanos += durationNanos;
+			if (failure instanceof TestAbortedException) {
+				run.aborted = true;
+			} else if (failure != null) {
+				run.failed = true;
+			}
+
+			// The tear down doesn't happen when the set up fails
+			if (phase != Phase.TearDown && !(phase == Phase.SetUp && failure != null)) {
+				return;
+			}
+			runs.remove(testCase);
+			if (run.aborted) {
+				return; // i.e. executed elsewhere
+			}
+		}
+		record(testCase.getDisplayName(), run);
+	}
+
+	// Appending a single line keeps each completion cheap, however large the history grows
+	private void record(String displayName, Run run) {
+		synchronized (this) {
+			entries.put(displayName, entries.getOrDefault(displayName, Entry.NONE).plus(run));
+		}
+		withLock(historyFile, () -> {
+			val lines = new ArrayList<String>(2);
+			if (!Files.exists(historyFile)) {
+				lines.add(HEADER);
+			}
+			lines.add(displayName + "\t" + run.format());
+			Files.write(historyFile, lines, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			return null;
+		});
+	}
+
+	private static void compact(Path historyFile, Map<String, Entry> entries) throws IOException {
+		val lines = new ArrayList<String>(entries.size() + 1);
+		lines.add(HEADER);
+		entries.forEach((key, value) -> lines.add(key + "\t" + value.format()));
+		val temporaryFile = Files.createTempFile(historyFile.getParent(), historyFile.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temporaryFile, lines, UTF_8);
+			Files.move(temporaryFile, historyFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	private interface IOAction<T> {
+		T run() throws IOException;
+	}
+
+	private static <T> T withLock(Path historyFile, IOAction<T> action) {
+		synchronized (PROCESS_LOCKS.computeIfAbsent(historyFile, it -> new Object())) {
+			try {
+				Files.createDirectories(historyFile.getParent());
+				try (val channel = FileChannel.open(historyFile.resolveSibling(historyFile.getFileName() + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE); val lock = channel.lock()) {
+					return action.run();
+				}
+			} catch (IOException e) {
+				return ExceptionUtils.rethrow(e);
+			}
+		}
+	}
+
+	// Unreadable entries, i.e. from another history version, are ignored, the appended runs are folded into their entry in order
+	// Returns true if the history file is compact, i.e. holds no run to fold
+	private static boolean readEntries(Path historyFile, Map<String, Entry> result) throws IOException {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(historyFile, UTF_8);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+
+		if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+			return false;
+		}
+		boolean compact = true;
+		for (String line : lines.subList(1, lines.size())) {
+			val values = line.split("\t", -1);
+			try {
+				if (values.length == 4) {
+					result.put(values[0], new Entry(Integer.parseInt(values[1]), Double.parseDouble(values[2]), Double.parseDouble(values[3])));
+				} else if (values.length == 3) {
+					result.put(values[0], result.getOrDefault(values[0], Entry.NONE).plus(Run.parse(values)));
+					compact = false;
+				}
+			} catch (NumberFormatException e) {
+				// ignores corrupted entry
+			}
+		}
+		return compact;
+	}
+
+	private static final class Run {
+		private long durationNanos = 0;
+		private boolean failed = false;
+		private boolean aborted = false;
+
+		static Run parse(String[] values) {
+			val result = new Run();
+			result.failed = Integer.parseInt(values[1]) != 0;
+			result.durationNanos = Long.parseLong(values[2]);
+			return result;
+		}
+
+		String format() {
+			return (failed ? 1 : 0) + "\t" + durationNanos;
+		}
+	}
+
+	private static final class Entry {
+		private static final Entry NONE = new Entry(0, 0, 0);
+		private final int runCount;
+		private final double failureRate;
+		private final double durationNanos;
+
+		private Entry(int runCount, double failureRate, double durationNanos) {
+			this.runCount = runCount;
+			this.failureRate = failureRate;
+			this.durationNanos = durationNanos;
+		}
+
+		Entry plus(Run run) {
+			val failure = run.failed ? 1.0 : 0.0;
+			if (runCount == 0) {
+				return new Entry(1, failure, run.durationNanos);
+			}
+			return new Entry(runCount + 1,
+				LATEST_RUN_WEIGHT * failure + (1 - LATEST_RUN_WEIGHT) * failureRate,
+				LATEST_RUN_WEIGHT * run.durationNanos + (1 - LATEST_RUN_WEIGHT) * durationNanos);
+		}
+
+		String format() {
+			return runCount + "\t" + failureRate + "\t" + durationNanos;
+		}
+	}
+}
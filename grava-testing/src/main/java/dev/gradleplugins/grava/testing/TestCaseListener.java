@@ -0,0 +1,66 @@
+package dev.gradleplugins.grava.testing;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives the timing of each phase of the executed test cases.
+ * Listeners may be notified concurrently when test cases execute in parallel, and after the test case completed for work happening in the background, i.e. deleting the workspace.
+ *
+ * @see TestCaseTimingReport
+ */
+public interface TestCaseListener {
+	/**
+	 * Called when a phase of a test case completes, successfully or not.
+	 *
+	 * @param testCase  the test case, never null
+	 * @param phase  the completed phase, never null
+	 * @param durationNanos  the duration of the phase in nanoseconds
+	 * @param failure  the phase failure, or null if the phase succeeded
+	 */
+	default void phaseCompleted(TestCase testCase, Phase phase, long durationNanos, @Nullable Throwable failure) {}
+
+	/**
+	 * Called when a retried operation of a test case completes, see {@link dev.gradleplugins.grava.testing.util.RetryUtils}.
+	 *
+	 * @param testCase  the test case, never null
+	 * @param operation  a short description of the operation, i.e. "delete workspace", never null
+	 * @param attempts  the number of attempts it took, 1 meaning the operation wasn't retried
+	 * @param durationNanos  the duration of all attempts in nanoseconds
+	 */
+	default void retriedOperationCompleted(TestCase testCase, String operation, int attempts, long durationNanos) {}
+
+	/**
+	 * Called when a retried operation of a test case fails on its last attempt, i.e. the workspace couldn't be deleted.
+	 *
+	 * @param testCase  the test case, never null
+	 * @param operation  a short description of the operation, i.e. "delete workspace", never null
+	 * @param durationNanos  the duration of all attempts in nanoseconds
+	 * @param failure  the failure of the last attempt, never null
+	 */
+	default void retriedOperationFailed(TestCase testCase, String operation, long durationNanos, Throwable failure) {}
+
+	/**
+	 * Called when a build executed by a test case was profiled, see {@link WellBehavedPluginTester#profileBuilds()}.
+	 *
+	 * @param testCase  the test case, never null
+	 * @param profile  the build profile, never null
+	 */
+	default void buildProfiled(TestCase testCase, BuildProfile profile) {}
+
+	enum Phase {
+		/**
+		 * Creates the workspace and the runner.
+		 */
+		SetUp,
+
+		/**
+		 * Executes the build and asserts its outcome.
+		 */
+		Execute,
+
+		/**
+		 * Releases the resources, the workspace deletion may continue in the background.
+		 */
+		TearDown
+	}
+}
@@ -0,0 +1,272 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.opentest4j.TestAbortedException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records the timing of each test case to find the slow checks, and the slow plugins.
+ *
+ * <pre>
+ * val report = new TestCaseTimingReport();
+ * try {
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").listener(report).testWellBehavedPlugin();
+ * } finally {
+ *     report.writeTo(Paths.get("build/reports/grava/timings.tsv"));
+ * }
+ * </pre>
+ *
+ * Work happening in the background, i.e. deleting the workspace, is recorded whenever it completes.
+ */
+public final class TestCaseTimingReport implements TestCaseListener {
+	private static final String HEADER = "test case\toutcome\tset up (ns)\texecute (ns)\ttear down (ns)\tretried operations\tattempts\tretried operations (ns)\tfailed retried operations\tplugin apply (ns)\tconfiguration (ns)\ttask graph (ns)";
+	private static final int SUMMARY_SIZE = 10;
+	// By display name, the test cases may report their builds on behalf of the wrapper executing them
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final List<Entry> orderedEntries = new ArrayList<>();
+
+	@Override
+	public void phaseCompleted(TestCase testCase, Phase phase, long durationNanos, @Nullable Throwable failure) {
+		synchronized (entries) {
+			val entry = entry(testCase);
+			entry.phaseNanos[phase.ordinal()] += durationNanos;
+			if (failure instanceof TestAbortedException) {
+				entry.outcome = Outcome.Aborted;
+			} else if (failure != null) {
+				entry.outcome = Outcome.Failed;
+			}
+		}
+	}
+
+	@Override
+	public void retriedOperationCompleted(TestCase testCase, String operation, int attempts, long durationNanos) {
+		synchronized (entries) {
+			val entry = entry(testCase);
+			entry.retriedOperationCount++;
+			entry.attempts += attempts;
+			entry.retriedOperationNanos += durationNanos;
+		}
+	}
+
+	@Override
+	public void retriedOperationFailed(TestCase testCase, String operation, long durationNanos, Throwable failure) {
+		synchronized (entries) {
+			val entry = entry(testCase);
+			entry.failedRetriedOperationCount++;
+			entry.retriedOperationNanos += durationNanos;
+		}
+	}
+
+	@Override
+	public void buildProfiled(TestCase testCase, BuildProfile profile) {
+		synchronized (entries) {
+			entry(testCase).buildProfile = profile;
+		}
+	}
+
+	private Entry entry(TestCase testCase) {
+		return entries.computeIfAbsent(testCase.getDisplayName(), it -> {
+			val result = new Entry(it);
+			orderedEntries.add(result);
+			return result;
+		});
+	}
+
+	/**
+	 * Returns the timing of each test case recorded so far, in the order they started.
+	 *
+	 * @return a list of test case timing, never null
+	 */
+	public List<TestCaseTiming> getTimings() {
+		synchronized (entries) {
+			return orderedEntries.stream().map(Entry::toTiming).collect(toList());
+		}
+	}
+
+	/**
+	 * Returns the slowest test cases recorded so far, by their total duration.
+	 *
+	 * @param count  the maximum number of test cases to return
+	 * @return a list of test case timing, slowest first, never null
+	 */
+	public List<TestCaseTiming> getSlowest(int count) {
+		return getTimings().stream().sorted(Comparator.comparing(TestCaseTiming::getTotalDuration).reversed()).limit(count).collect(toList());
+	}
+
+	/**
+	 * Writes the timings as tab-separated values, one test case per line, to aggregate across builds and repositories.
+	 *
+	 * @param file  the report file, must not be null
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(Path file) throws IOException {
+		val lines = new ArrayList<String>();
+		lines.add(HEADER);
+		for (TestCaseTiming timing : getTimings()) {
+			lines.add(String.join("\t", timing.getDisplayName(), timing.getOutcome().toString(),
+				Long.toString(timing.getSetUpDuration().toNanos()), Long.toString(timing.getExecuteDuration().toNanos()), Long.toString(timing.getTearDownDuration().toNanos()),
+				Integer.toString(timing.getRetriedOperationCount()), Integer.toString(timing.getAttempts()), Long.toString(timing.getRetriedOperationDuration().toNanos()), Integer.toString(timing.getFailedRetriedOperationCount()),
+				nanos(timing.getBuildProfile().flatMap(BuildProfile::getPluginApplyDuration)), nanos(timing.getBuildProfile().flatMap(BuildProfile::getConfigurationDuration)), nanos(timing.getBuildProfile().flatMap(BuildProfile::getTaskGraphDuration))));
+		}
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		Files.write(file, lines, UTF_8);
+	}
+
+	/**
+	 * Summarizes the time spent in each phase and the slowest test cases.
+	 */
+	@Override
+	public String toString() {
+		val timings = getTimings();
+		val result = new StringBuilder();
+		result.append(timings.size()).append(" test cases: ")
+			.append("set up ").append(format(sum(timings, TestCaseTiming::getSetUpDuration))).append(", ")
+			.append("execute ").append(format(sum(timings, TestCaseTiming::getExecuteDuration))).append(", ")
+			.append("tear down ").append(format(sum(timings, TestCaseTiming::getTearDownDuration))).append(", ")
+			.append("retried operations ").append(format(sum(timings, TestCaseTiming::getRetriedOperationDuration)))
+			.append(" (").append(timings.stream().mapToInt(it -> it.getAttempts() - it.getRetriedOperationCount()).sum()).append(" retries, ")
+			.append(timings.stream().mapToInt(TestCaseTiming::getFailedRetriedOperationCount).sum()).append(" failed)");
+		for (TestCaseTiming timing : getSlowest(SUMMARY_SIZE)) {
+			result.append(System.lineSeparator()).append("  ").append(format(timing.getTotalDuration()))
+				.append(" ").append(timing.getDisplayName()).append(" (").append(timing.getOutcome()).append(")");
+			timing.getBuildProfile().ifPresent(it -> result.append(", ").append(it));
+		}
+		return result.toString();
+	}
+
+	private static String nanos(Optional<Duration> duration) {
+		return duration.map(it -> Long.toString(it.toNanos())).orElse("");
+	}
+
+	private static Duration sum(List<TestCaseTiming> timings, Function<TestCaseTiming, Duration> duration) {
+		return timings.stream().map(duration).reduce(Duration.ZERO, Duration::plus);
+	}
+
+	private static String format(Duration duration) {
+		return String.format("%.3fs", duration.toNanos() / 1_000_000_000.0);
+	}
+
+	public enum Outcome {
+		Passed, Failed, Aborted
+	}
+
+	public static final class TestCaseTiming {
+		private final String displayName;
+		private final Outcome outcome;
+		private final Duration setUpDuration;
+		private final Duration executeDuration;
+		private final Duration tearDownDuration;
+		private final int retriedOperationCount;
+		private final int attempts;
+		private final Duration retriedOperationDuration;
+		private final int failedRetriedOperationCount;
+		@Nullable private final BuildProfile buildProfile;
+
+		private TestCaseTiming(String displayName, Outcome outcome, Duration setUpDuration, Duration executeDuration, Duration tearDownDuration, int retriedOperationCount, int attempts, Duration retriedOperationDuration, int failedRetriedOperationCount, @Nullable BuildProfile buildProfile) {
+			this.displayName = displayName;
+			this.outcome = outcome;
+			this.setUpDuration = setUpDuration;
+			this.executeDuration = executeDuration;
+			this.tearDownDuration = tearDownDuration;
+			this.retriedOperationCount = retriedOperationCount;
+			this.attempts = attempts;
+			this.retriedOperationDuration = retriedOperationDuration;
+			this.failedRetriedOperationCount = failedRetriedOperationCount;
+			this.buildProfile = buildProfile;
+		}
+
+		public String getDisplayName() {
+			return displayName;
+		}
+
+		public Outcome getOutcome() {
+			return outcome;
+		}
+
+		public Duration getSetUpDuration() {
+			return setUpDuration;
+		}
+
+		public Duration getExecuteDuration() {
+			return executeDuration;
+		}
+
+		public Duration getTearDownDuration() {
+			return tearDownDuration;
+		}
+
+		/**
+		 * Returns the duration of the set up, execute and tear down phases, excluding the work happening in the background.
+		 */
+		public Duration getTotalDuration() {
+			return setUpDuration.plus(executeDuration).plus(tearDownDuration);
+		}
+
+		public int getRetriedOperationCount() {
+			return retriedOperationCount;
+		}
+
+		/**
+		 * Returns the attempts of all retried operations, i.e. 3 for a workspace deleted on the third attempt.
+		 */
+		public int getAttempts() {
+			return attempts;
+		}
+
+		public Duration getRetriedOperationDuration() {
+			return retriedOperationDuration;
+		}
+
+		/**
+		 * Returns the number of retried operations that failed on their last attempt, i.e. a workspace left behind.
+		 */
+		public int getFailedRetriedOperationCount() {
+			return failedRetriedOperationCount;
+		}
+
+		/**
+		 * Returns the profile of the last build executed by the test case, only when profiling builds.
+		 */
+		public Optional<BuildProfile> getBuildProfile() {
+			return Optional.ofNullable(buildProfile);
+		}
+	}
+
+	private static final class Entry {
+		private final String displayName;
+		private final long[] phaseNanos = new long[Phase.values().length];
+		private Outcome outcome = Outcome.Passed;
+		private int retriedOperationCount = 0;
+		private int attempts = 0;
+		private long retriedOperationNanos = 0;
+		private int failedRetriedOperationCount = 0;
+		private BuildProfile buildProfile = null;
+
+		private Entry(String displayName) {
+			this.displayName = displayName;
+		}
+
+		TestCaseTiming toTiming() {
+			return new TestCaseTiming(displayName, outcome,
+				Duration.ofNanos(phaseNanos[Phase.SetUp.ordinal()]), Duration.ofNanos(phaseNanos[Phase.Execute.ordinal()]), Duration.ofNanos(phaseNanos[Phase.TearDown.ordinal()]),
+				retriedOperationCount, attempts, Duration.ofNanos(retriedOperationNanos), failedRetriedOperationCount, buildProfile);
+		}
+	}
+}
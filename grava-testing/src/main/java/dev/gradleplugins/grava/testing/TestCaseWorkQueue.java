@@ -0,0 +1,62 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import static dev.gradleplugins.grava.testing.util.HashUtils.shortHash;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Work queue shared by the JVMs executing the same test cases, i.e. Gradle test forks.
+ *
+ * Each test case is claimed by creating its lock file in the shared directory, the file system guaranteeing a single JVM creates it.
+ * The JVMs go through the test cases in the same order, each executing the next unclaimed one, so the load balances across uneven test case durations.
+ * The directory must be unique to a run, claimed test cases are never released.
+ * A consumer claiming a group of test cases executes each test case of the group, see {@link TestCase#getGroupName()}.
+ */
+final class TestCaseWorkQueue {
+	private static final String CLAIMANT = ManagementFactory.getRuntimeMXBean().getName();
+	private final Path directory;
+	private final Set<String> claimed = new HashSet<>();
+
+	private TestCaseWorkQueue(Path directory) {
+		this.directory = directory;
+	}
+
+	public static TestCaseWorkQueue of(Path directory) {
+		return new TestCaseWorkQueue(directory.toAbsolutePath());
+	}
+
+	/**
+	 * Claims the specified test case, or group of test cases, for this consumer.
+	 *
+	 * @param displayName  the display name of the test case, or the group name, to claim, must not be null
+	 * @return {@code true} if this consumer should execute the test case or {@code false} if another one claimed it
+	 */
+	public synchronized boolean claim(String displayName) {
+		if (claimed.contains(displayName)) {
+			return true; // i.e. another test case of the group
+		}
+
+		val lockFile = directory.resolve(shortHash(displayName) + ".lock");
+		try {
+			Files.createDirectories(directory);
+			Files.write(lockFile, (CLAIMANT + "\n" + displayName + "\n").getBytes(UTF_8), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			claimed.add(displayName);
+			return true;
+		} catch (FileAlreadyExistsException e) {
+			return false;
+		} catch (IOException e) {
+			return ExceptionUtils.rethrow(e);
+		}
+	}
+}
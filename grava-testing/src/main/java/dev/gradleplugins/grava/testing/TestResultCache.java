@@ -0,0 +1,127 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.util.HashUtils;
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Persistent cache of the passed test cases, keyed by a content hash of the inputs of the test cases.
+ *
+ * The inputs are the content of the plugin classpath and of the tester itself, plus the tester configuration, i.e. plugin id and Gradle version.
+ * Each passed test case leaves a marker, named after its display name, in the directory of the inputs hash.
+ * Any change to the inputs lands in a new directory, so stale results are never reused.
+ * Failures are never cached, a failed test case removes its marker and executes again next time.
+ * The directories of inputs unused for a week are deleted when opening the cache.
+ */
+final class TestResultCache {
+	// NOTE: the space in the directory name is intentional
+	static final Path DEFAULT_ROOT = new File("build/tmp/test results").toPath();
+	private static final Duration UNUSED_RETENTION = Duration.ofDays(7);
+	private final Path directory;
+
+	private TestResultCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Opens the result cache for the specified inputs.
+	 *
+	 * @param root  the cache root directory, must not be null
+	 * @param classpath  the classpath whose content the test cases depends on, must not be null
+	 * @param inputs  the other inputs of the test cases, must not be null
+	 * @return a result cache, never null
+	 */
+	public static TestResultCache of(Path root, List<? extends File> classpath, List<String> inputs) {
+		val directory = root.toAbsolutePath().resolve(hashOf(classpath, inputs));
+		try {
+			Files.createDirectories(directory);
+			Files.setLastModifiedTime(directory, FileTime.fromMillis(System.currentTimeMillis())); // i.e. last used
+			deleteUnusedDirectories(directory.getParent());
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+		return new TestResultCache(directory);
+	}
+
+	private static void deleteUnusedDirectories(Path root) throws IOException {
+		val unusedSince = System.currentTimeMillis() - UNUSED_RETENTION.toMillis();
+		final List<Path> directories;
+		try (Stream<Path> stream = Files.list(root)) {
+			directories = stream.filter(Files::isDirectory).collect(toList());
+		}
+		for (Path directory : directories) {
+			try {
+				if (Files.getLastModifiedTime(directory).toMillis() < unusedSince) {
+					FileUtils.deleteDirectory(directory.toFile());
+				}
+			} catch (IOException e) {
+				// i.e. deleted concurrently, or still in use, try again next time
+			}
+		}
+	}
+
+	/**
+	 * Returns the directory holding the results of this cache inputs.
+	 *
+	 * @return the cache directory, never null
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public boolean isPassed(String displayName) {
+		return Files.exists(markerOf(displayName));
+	}
+
+	public void markPassed(String displayName) {
+		val marker = markerOf(displayName);
+		try {
+			Files.createDirectories(marker.getParent());
+			Files.write(marker, displayName.getBytes(UTF_8));
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+	}
+
+	public void markFailed(String displayName) {
+		try {
+			Files.deleteIfExists(markerOf(displayName));
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+	}
+
+	private Path markerOf(String displayName) {
+		return directory.resolve(HashUtils.shortHash(displayName) + ".passed");
+	}
+
+	private static String hashOf(List<? extends File> classpath, List<String> inputs) {
+		val digest = HashUtils.newDigest();
+		for (String input : inputs) {
+			digest.update(input.getBytes(UTF_8));
+			digest.update((byte) 0);
+		}
+		try {
+			for (File file : classpath) {
+				digest.update((byte) 1);
+				HashUtils.hashContent(digest, file.toPath());
+			}
+		} catch (IOException e) {
+			ExceptionUtils.rethrow(e);
+		}
+		return HashUtils.shortHash(digest);
+	}
+}
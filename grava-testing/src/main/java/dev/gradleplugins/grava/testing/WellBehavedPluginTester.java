@@ -1,20 +1,29 @@
 package dev.gradleplugins.grava.testing;
 
 import dev.gradleplugins.grava.testing.file.TestNameTestDirectoryProvider;
+import dev.gradleplugins.grava.testing.file.WorkspaceTemplate;
 import dev.gradleplugins.runnerkit.BuildResult;
 import dev.gradleplugins.runnerkit.GradleExecutor;
 import dev.gradleplugins.runnerkit.GradleRunner;
 import lombok.SneakyThrows;
 import lombok.val;
+import org.apache.commons.io.FileUtils;
 import org.gradle.api.Plugin;
 import org.gradle.api.plugins.PluginAware;
+import org.gradle.util.GradleVersion;
 import org.opentest4j.TestAbortedException;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import static dev.gradleplugins.fixtures.runnerkit.BuildResultMatchers.hasFailureCause;
 import static java.lang.String.join;
@@ -23,6 +32,8 @@ import static java.nio.file.Files.write;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 
 /**
@@ -35,6 +46,41 @@ import static org.hamcrest.Matchers.not;
  *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").testWellBehavedPlugin()
  * </pre>
  *
+ * Test cases can execute concurrently with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").parallelism(4).testWellBehavedPlugin()
+ * </pre>
+ *
+ * The timing of each test case can be reported with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").listener(report).testWellBehavedPlugin()
+ * </pre>
+ *
+ * Test cases can be split between Gradle test forks with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").shard(forkIndex, forkCount).testWellBehavedPlugin()
+ * </pre>
+ *
+ * Developers iterating on a misbehaving plugin can get the first failure faster with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").prioritizeByHistory().failFast().testWellBehavedPlugin()
+ * </pre>
+ *
+ * Test cases which passed with the exact same plugin classpath and configuration can be skipped with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").cacheResults().testWellBehavedPlugin()
+ * </pre>
+ *
+ * Test cases can execute against several local Gradle distributions concurrently with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").gradleDistributions(Paths.get("gradle-6.8.1-bin.zip"), Paths.get("/opt/gradle-7.0")).parallelism(2).testWellBehavedPlugin()
+ * </pre>
+ *
+ * The configuration time of each build can be bounded with the following:
+ * <pre>
+ *     new WellBehavedPluginTester().qualifiedPluginId("foo.bar").configurationTimeBudget(Duration.ofSeconds(1)).testWellBehavedPlugin()
+ * </pre>
+ *
  * JUnit 5 {@code @TestFactory} can be achieved with the following:
  * <pre>
  * &#64;TestFactory
@@ -51,6 +97,19 @@ public final class WellBehavedPluginTester extends AbstractTester {
 	private Class<? extends Plugin<?>> pluginType;
 	private EnumSet<SupportedTarget> targets = null;
 	private Boolean crossTargetErrorSupport = null;
+	private String gradleVersion = null;
+	private final List<GradleDistribution> gradleDistributions = new ArrayList<>();
+	private GradleDistribution gradleDistribution = null;
+	private boolean fuseCompatibleTestCases = false;
+	private PluginClasspathInitScripts initScripts = null;
+	private WorkspaceTemplate workspaceTemplate = null;
+	private boolean profileBuilds = false;
+	private Duration configurationTimeBudget = null;
+	private int scalingProjectCount = 0;
+	private Duration perProjectConfigurationTimeBudget = null;
+	private Path resultCacheRoot = null;
+	private TestResultCache resultCache = null;
+	private Map<String, GradleDaemonPool> daemonPools = new ConcurrentHashMap<>();
 
 	private String getQualifiedPluginIdUnderTest() {
 		if (qualifiedPluginId == null) {
@@ -81,6 +140,216 @@ public final class WellBehavedPluginTester extends AbstractTester {
 		return this;
 	}
 
+	/**
+	 * Executes the test cases using the specified Gradle version instead of the runner's default.
+	 *
+	 * @param gradleVersion  the Gradle version to test the plugin against, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester gradleVersion(String gradleVersion) {
+		this.gradleVersion = Objects.requireNonNull(gradleVersion);
+		return this;
+	}
+
+	/**
+	 * Executes each test case against each of the specified local Gradle distributions instead of the runner's default, or {@link #gradleVersion(String)}.
+	 * A distribution is either a Gradle installation directory or a distribution archive, i.e. {@literal gradle-6.8.1-bin.zip}.
+	 * The archives are unpacked once under {@literal build/tmp/test distributions}, shared between the test cases and the Gradle test forks.
+	 * The display name of each test case ends with the Gradle version, i.e. {@literal can execute help task [Project] [Gradle 6.8.1]}, so the results are reported per version.
+	 * The matrix executes with the configured parallelism, see {@link #parallelism(int)}.
+	 *
+	 * @param distributions  the Gradle installation directories or distribution archives, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester gradleDistributions(Path... distributions) {
+		return gradleDistributions(Arrays.asList(distributions));
+	}
+
+	/**
+	 * Executes each test case against each of the specified local Gradle distributions, see {@link #gradleDistributions(Path...)}.
+	 *
+	 * @param distributions  the Gradle installation directories or distribution archives, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester gradleDistributions(Collection<? extends Path> distributions) {
+		for (Path distribution : distributions) {
+			gradleDistributions.add(GradleDistribution.of(distribution));
+		}
+		return this;
+	}
+
+	/**
+	 * Executes the test cases concurrently when using {@link #testWellBehavedPlugin()}.
+	 * Each test case builds in its own workspace, so they can safely run side-by-side.
+	 * All failures are still reported together once every test case completed.
+	 *
+	 * @param parallelism  the number of test cases to execute concurrently, must be positive
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester parallelism(int parallelism) {
+		setParallelism(parallelism);
+		return this;
+	}
+
+	/**
+	 * Only executes the test cases of the specified shard, i.e. to split the test cases between Gradle test forks or CI machines.
+	 * The test cases are assigned to a shard by a stable hash of their display name, all shards together execute every test case exactly once.
+	 *
+	 * @param index  the zero-based index of the shard to execute
+	 * @param count  the number of shards, must be positive
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester shard(int index, int count) {
+		setShard(index, count);
+		return this;
+	}
+
+	/**
+	 * Shares the test cases with the other JVMs using the same work queue directory, i.e. Gradle test forks.
+	 * Each JVM claims the next unclaimed test case, the test cases claimed by another JVM are aborted.
+	 * Contrary to {@link #shard(int, int)}, the load balances across uneven test case durations.
+	 * The directory must be unique to the run, i.e. {@code test { systemProperty('grava.queue', "$buildDir/tmp/grava-queue/${UUID.randomUUID()}") }}.
+	 *
+	 * @param directory  the work queue directory, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester workQueue(Path directory) {
+		setWorkQueue(directory);
+		return this;
+	}
+
+	/**
+	 * Executes the test cases which failed recently first, then the shortest first, for a faster signal on a misbehaving plugin.
+	 * The history is kept in {@literal build/tmp/test history/well-behaved.txt}.
+	 *
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester prioritizeByHistory() {
+		return prioritizeByHistory(DEFAULT_HISTORY_FILE);
+	}
+
+	/**
+	 * Executes the test cases which failed recently first, then the shortest first, see {@link #prioritizeByHistory()}.
+	 * Testers of different plugins should use different history files.
+	 *
+	 * @param historyFile  the history file, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester prioritizeByHistory(Path historyFile) {
+		setHistory(historyFile);
+		return this;
+	}
+
+	/**
+	 * Stops executing test cases after the first failure when using {@link #testWellBehavedPlugin()}.
+	 *
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester failFast() {
+		return failFast(1);
+	}
+
+	/**
+	 * Stops executing test cases after the specified number of failures when using {@link #testWellBehavedPlugin()}.
+	 * The test cases already executing complete, the remaining ones are not executed.
+	 *
+	 * @param maximumFailures  the number of failures to stop after, must be positive
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester failFast(int maximumFailures) {
+		setFailFast(maximumFailures);
+		return this;
+	}
+
+	/**
+	 * Notifies the specified listener of the timing of each test case phase, i.e. using a {@link TestCaseTimingReport}.
+	 *
+	 * @param listener  the listener to notify, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester listener(TestCaseListener listener) {
+		addTestCaseListener(listener);
+		return this;
+	}
+
+	/**
+	 * Profiles each build executed by the test cases, reporting the plugin apply time, the configuration time and the task graph time to the listeners.
+	 * The timings are captured by an additional init script listening to the build lifecycle and build operations.
+	 *
+	 * @return this tester
+	 * @see BuildProfile
+	 */
+	public WellBehavedPluginTester profileBuilds() {
+		this.profileBuilds = true;
+		return this;
+	}
+
+	/**
+	 * Fails the test cases whose successful build took longer than the specified budget to configure the projects.
+	 * It implies {@link #profileBuilds()}.
+	 *
+	 * @param budget  the maximum configuration time, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester configurationTimeBudget(Duration budget) {
+		this.configurationTimeBudget = Objects.requireNonNull(budget);
+		this.profileBuilds = true;
+		return this;
+	}
+
+	/**
+	 * Checks how the configuration time scales when the plugin is applied to every project of a synthetic multi-project build.
+	 * The plugin configuration overhead is measured against the same build without the plugin, with a tenth of the projects and with all of them.
+	 * The check fails when the overhead per project exceeds the budget or grows super-linearly with the number of projects.
+	 * Only project plugins are checked, it executes a few large builds so it is opt-in.
+	 *
+	 * @param projectCount  the number of projects of the largest build, at least 10
+	 * @param perProjectBudget  the maximum configuration time the plugin can add per project, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester configurationScaling(int projectCount, Duration perProjectBudget) {
+		if (projectCount < 10) {
+			throw new IllegalArgumentException("Project count must be at least 10, but was " + projectCount);
+		}
+		this.scalingProjectCount = projectCount;
+		this.perProjectConfigurationTimeBudget = Objects.requireNonNull(perProjectBudget);
+		return this;
+	}
+
+	/**
+	 * Skips the test cases which passed with the exact same inputs, reporting them as passed right away.
+	 * The inputs are the content of the plugin classpath and of the tester, plus the tester configuration, i.e. plugin id, supported targets and Gradle version.
+	 * The results are kept under {@literal build/tmp/test results}.
+	 *
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester cacheResults() {
+		return cacheResults(TestResultCache.DEFAULT_ROOT);
+	}
+
+	/**
+	 * Skips the test cases which passed with the exact same inputs, see {@link #cacheResults()}.
+	 *
+	 * @param directory  the directory to keep the results in, must not be null
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester cacheResults(Path directory) {
+		this.resultCacheRoot = Objects.requireNonNull(directory);
+		return this;
+	}
+
+	/**
+	 * Fuses the test cases applying the plugin the same way into a single build per target.
+	 * The fused build records the realized tasks and resolved configurations, each test case then asserts on its own part of the outcome.
+	 * It trades the isolation between those test cases for a lot less builds.
+	 *
+	 * @return this tester
+	 */
+	public WellBehavedPluginTester fuseCompatibleTestCases() {
+		this.fuseCompatibleTestCases = true;
+		return this;
+	}
+
 	/**
 	 * Mark the plugin under test as misbehaving when applied to unsupported target.
 	 * By default, when a plugin is applied to an unsupported target, i.e. Project plugin applied to Settings, a class cast exception will be thrown.
@@ -111,6 +380,60 @@ public final class WellBehavedPluginTester extends AbstractTester {
 	}
 
 	protected void collectTesters(List<TestCase> testCases) {
+		if (gradleDistributions.isEmpty()) {
+			collectGradleVersionTesters(testCases);
+			return;
+		}
+
+		for (GradleDistribution distribution : gradleDistributions) {
+			val distributionTestCases = new ArrayList<TestCase>();
+			forGradleDistribution(distribution).collectGradleVersionTesters(distributionTestCases);
+			for (TestCase testCase : distributionTestCases) {
+				testCases.add(new GradleVersionTestCase(testCase, distribution.getVersion()));
+			}
+		}
+	}
+
+	// The test cases of a tester only ever execute against a single Gradle version
+	private WellBehavedPluginTester forGradleDistribution(GradleDistribution distribution) {
+		val result = new WellBehavedPluginTester();
+		result.qualifiedPluginId = qualifiedPluginId;
+		result.pluginType = pluginType;
+		result.targets = targets == null ? null : EnumSet.copyOf(targets);
+		result.crossTargetErrorSupport = crossTargetErrorSupport;
+		result.gradleDistribution = distribution;
+		result.fuseCompatibleTestCases = fuseCompatibleTestCases;
+		result.initScripts = initScripts();
+		result.profileBuilds = profileBuilds;
+		result.configurationTimeBudget = configurationTimeBudget;
+		result.scalingProjectCount = scalingProjectCount;
+		result.perProjectConfigurationTimeBudget = perProjectConfigurationTimeBudget;
+		result.resultCacheRoot = resultCacheRoot;
+		result.daemonPools = daemonPools;
+		result.setParallelism(getParallelism()); // i.e. the number of daemons to warm up
+
+		// Work reported outside the test case phases goes to this tester's listeners
+		val listener = getTestCaseListener();
+		result.addTestCaseListener(new TestCaseListener() {
+			@Override
+			public void retriedOperationCompleted(TestCase testCase, String operation, int attempts, long durationNanos) {
+				listener.retriedOperationCompleted(new GradleVersionTestCase(testCase, distribution.getVersion()), operation, attempts, durationNanos);
+			}
+
+			@Override
+			public void retriedOperationFailed(TestCase testCase, String operation, long durationNanos, Throwable failure) {
+				listener.retriedOperationFailed(new GradleVersionTestCase(testCase, distribution.getVersion()), operation, durationNanos, failure);
+			}
+
+			@Override
+			public void buildProfiled(TestCase testCase, BuildProfile profile) {
+				listener.buildProfiled(new GradleVersionTestCase(testCase, distribution.getVersion()), profile);
+			}
+		});
+		return result;
+	}
+
+	private void collectGradleVersionTesters(List<TestCase> testCases) {
 		if (targets == null) {
 			targets = EnumSet.of(SupportedTarget.Project);
 			if (crossTargetErrorSupport == null) {
@@ -121,21 +444,48 @@ public final class WellBehavedPluginTester extends AbstractTester {
 			crossTargetErrorSupport = true;
 		}
 
+		PrerequisiteTestCase appliesPluginToProject = null;
 		for (SupportedTarget target : targets) {
+			val build = fuseCompatibleTestCases ? new FusedWellBehavedBuild(target) : null;
+
+			// Applying by type is only compatible when the plugin is applied by type anyway
+			TestCase canApplyPluginByType = new CanApplyPluginByTypeUsingPluginAwareApply(target);
+			if (appliesPluginByTypeToTarget(target)) {
+				canApplyPluginByType = fused(canApplyPluginByType, build, it -> {});
+			}
+
+			// Checks applying the plugin however possible would fail the same way when it doesn't apply
+			final PrerequisiteTestCase appliesPlugin;
+			TestCase canApplyPluginById = new CanApplyPluginByIdUsingPluginAwareApply(target);
+			if (appliesPluginByTypeToTarget(target)) {
+				appliesPlugin = new PrerequisiteTestCase(canApplyPluginByType);
+				canApplyPluginByType = appliesPlugin;
+			} else {
+				appliesPlugin = new PrerequisiteTestCase(canApplyPluginById);
+				canApplyPluginById = appliesPlugin;
+			}
+			if (target == SupportedTarget.Project) {
+				appliesPluginToProject = appliesPlugin;
+			}
+
 			// Plugin id resolution service is not available in init scripts
 			if (target != SupportedTarget.Init) {
 				testCases.add(new AppliesPluginTypeWhenApplyingPluginId(target));
-				testCases.add(new CanApplyPluginByIdUsingPluginAwareApply(target));
+				testCases.add(canApplyPluginById);
 				testCases.add(new CanApplyPluginViaPluginDsl(target));
 			}
 
-			testCases.add(new CanApplyPluginByTypeUsingPluginAwareApply(target));
-
-			testCases.add(new CanExecuteHelpTask(target));
-			testCases.add(new CanExecuteTasksTask(target));
-			testCases.add(new DoesNotRealizeTask(target));
-			testCases.add(new DoesNotResolveConfiguration(target));
-			testCases.add(new CanResolveAllDomainObjects(target));
+			testCases.add(canApplyPluginByType);
+
+			testCases.add(appliesPlugin.dependent(fused(new CanExecuteHelpTask(target), build, it -> {})));
+			testCases.add(appliesPlugin.dependent(new CanExecuteTasksTask(target)));
+			testCases.add(appliesPlugin.dependent(fused(new DoesNotRealizeTask(target), build, it -> {
+				assertThat("tasks were realized", it.getRealizedTaskPaths(), empty());
+			})));
+			testCases.add(appliesPlugin.dependent(fused(new DoesNotResolveConfiguration(target), build, it -> {
+				assertThat("some configuration were resolved", it.getResolvedConfigurationPaths(), empty());
+			})));
+			testCases.add(appliesPlugin.dependent(new CanResolveAllDomainObjects(target)));
 		}
 
 		if (crossTargetErrorSupport) {
@@ -143,11 +493,30 @@ public final class WellBehavedPluginTester extends AbstractTester {
 				testCases.add(new ThrowsSensibleExceptionWhenApplyingPluginOnWrongTarget(target));
 			}
 		}
+
+		if (scalingProjectCount > 0 && appliesPluginToProject != null) {
+			testCases.add(appliesPluginToProject.dependent(new ConfigurationTimeScalesLinearly(scalingProjectCount, perProjectConfigurationTimeBudget)));
+		}
+
+		if (resultCacheRoot != null) {
+			testCases.replaceAll(CachedTestCase::new);
+		}
+	}
+
+	private static TestCase fused(TestCase testCase, @Nullable FusedWellBehavedBuild build, Consumer<? super FusedWellBehavedBuild> assertion) {
+		if (build == null) {
+			return testCase;
+		}
+		return new FusedTestCase(testCase, build, assertion);
+	}
+
+	private boolean appliesPluginByTypeToTarget(SupportedTarget target) {
+		return target == SupportedTarget.Init || qualifiedPluginId == null;
 	}
 
 	// TODO: move to Supported target?
 	private String appliesPluginToTarget(SupportedTarget target) {
-		if (target == SupportedTarget.Init || qualifiedPluginId == null) {
+		if (appliesPluginByTypeToTarget(target)) {
 			return "apply plugin: Class.forName('" + getPluginTypeUnderTest().getTypeName() + "')";
 		} else {
 			return "apply plugin: '" + getQualifiedPluginIdUnderTest() + "'";
@@ -163,9 +532,103 @@ public final class WellBehavedPluginTester extends AbstractTester {
 		if (qualifiedPluginId == null && pluginType == null) {
 			throw new AssertionError("Missing qualified plugin id and/or plugin type");
 		}
-		executeAllTestCases();
+		try {
+			executeAllTestCases();
+		} finally {
+			closeDaemonPools();
+		}
 	}
 
+	// Test cases converted with stream() have no end, their pools are closed when the JVM exits
+	private GradleDaemonPool daemonPool() {
+		return daemonPools.computeIfAbsent(effectiveGradleVersion(), version -> GradleDaemonPool.of(GradleDaemonPool.DEFAULT_ROOT, initScripts().getPluginClasspath(), version, getParallelism(), this::warmUp));
+	}
+
+	private void closeDaemonPools() {
+		daemonPools.values().forEach(GradleDaemonPool::close);
+		daemonPools.clear();
+	}
+
+	private void warmUp(Path gradleUserHomeDirectory, Path workingDirectory) {
+		workspaceTemplate().materialize(workingDirectory);
+		GradleRunner.create(GradleExecutor.gradleTestKit()).inDirectory(workingDirectory.toFile()).withPluginClasspath(initScripts().getPluginClasspath())
+			.usingInitScript(initScripts().getClasspathInitScript().toFile()).configure(this::configureRunnerGradleVersion)
+			.withGradleUserHomeDirectory(gradleUserHomeDirectory.toFile()).withTasks("help").build();
+	}
+
+	private GradleRunner configureRunnerGradleVersion(GradleRunner runner) {
+		if (gradleDistribution != null) {
+			return runner.withGradleInstallation(gradleDistribution.getInstallationDirectory().toFile());
+		} else if (gradleVersion == null) {
+			return runner;
+		}
+		return runner.withGradleVersion(gradleVersion);
+	}
+
+	// The runner's default is the Gradle version executing the tests
+	private String effectiveGradleVersion() {
+		if (gradleDistribution != null) {
+			return gradleDistribution.getVersion();
+		} else if (gradleVersion != null) {
+			return gradleVersion;
+		}
+		return GradleVersion.current().getVersion();
+	}
+
+	private synchronized PluginClasspathInitScripts initScripts() {
+		if (initScripts == null) {
+			initScripts = PluginClasspathInitScripts.of(resolvePluginClasspath());
+		}
+		return initScripts;
+	}
+
+	private synchronized WorkspaceTemplate workspaceTemplate() {
+		if (workspaceTemplate == null) {
+			val builder = WorkspaceTemplate.builder()
+				.file("init.gradle", initScripts().getInitScriptClasspath() + "\n")
+				.file("settings.gradle", "") // avoid searching for a settings file in parent directories
+				.directory("a").directory("b").directory("c"); // sub-projects included by the classpath init script
+			if (profileBuilds) {
+				builder.file(PROFILE_INIT_SCRIPT_NAME, BuildProfile.initScript(qualifiedPluginId, pluginType));
+			}
+			workspaceTemplate = builder.build();
+		}
+		return workspaceTemplate;
+	}
+
+	private synchronized TestResultCache resultCache() {
+		if (resultCache == null) {
+			val classpath = new ArrayList<File>(initScripts().getPluginClasspath());
+			// The test cases themselves are inputs, i.e. a new tester version may check more
+			val testerCodeSource = WellBehavedPluginTester.class.getProtectionDomain().getCodeSource();
+			if (testerCodeSource != null) {
+				classpath.add(FileUtils.toFile(testerCodeSource.getLocation()));
+			}
+			resultCache = TestResultCache.of(resultCacheRoot, classpath, Arrays.asList(
+				"qualifiedPluginId=" + qualifiedPluginId,
+				"pluginType=" + (pluginType == null ? null : pluginType.getName()),
+				"targets=" + targets,
+				"crossTargetErrorSupport=" + crossTargetErrorSupport,
+				"gradleVersion=" + effectiveGradleVersion(),
+				"gradleDistribution=" + gradleDistribution,
+				"fuseCompatibleTestCases=" + fuseCompatibleTestCases,
+				"configurationTimeBudget=" + configurationTimeBudget,
+				"configurationScaling=" + scalingProjectCount + "/" + perProjectConfigurationTimeBudget));
+		}
+		return resultCache;
+	}
+
+	private static List<? extends File> resolvePluginClasspath() {
+		// TODO: Should this be a feature of Runner Kit
+		if (Thread.currentThread().getContextClassLoader().getResource("plugin-under-test-metadata.properties") == null) {
+			return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator)).map(File::new).collect(toList());
+		}
+		return GradleRunner.create(GradleExecutor.gradleTestKit()).withPluginClasspath().getPluginClasspath();
+	}
+
+	private static final String PROFILE_INIT_SCRIPT_NAME = "profile.init.gradle";
+	// NOTE: the space in the directory name is intentional
+	private static final Path DEFAULT_HISTORY_FILE = new File("build/tmp/test history/well-behaved.txt").toPath();
 	private static final boolean LEAVE_WORKSPACE_BEHIND_ON_ERRORS = Boolean.parseBoolean(System.getProperty("dev.gradleplugins.internal.leave-workspace-behind-on-errors", "false"));
 	private abstract class FileTesterTestCase implements TestCase {
 		private final TestNameTestDirectoryProvider testDirectory = TestNameTestDirectoryProvider.newInstance(getDisplayName(), WellBehavedPluginTester.this);
@@ -195,39 +658,93 @@ public final class WellBehavedPluginTester extends AbstractTester {
 		@Override
 		public void tearDown() throws Throwable {
 			if (shouldCleanup) {
-				testDirectory.cleanup();
+				val listener = getTestCaseListener();
+				val startTime = System.nanoTime();
+				testDirectory.cleanupInBackground().whenComplete((attempts, failure) -> workspaceDeleted(listener, this, attempts, failure, System.nanoTime() - startTime));
 			}
 		}
 	}
 
+	// The workspace is deleted in the background, long after the test case completed
+	static void workspaceDeleted(TestCaseListener listener, TestCase testCase, @Nullable Integer attempts, @Nullable Throwable failure, long durationNanos) {
+		if (failure != null) {
+			listener.retriedOperationFailed(testCase, "delete workspace", durationNanos, failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+		} else if (attempts != null && attempts > 1) {
+			// Only the retried deletions are worth reporting, most workspaces are deleted on the first attempt
+			listener.retriedOperationCompleted(testCase, "delete workspace", attempts, durationNanos);
+		}
+	}
+
 	private abstract class AbstractWellBehavedIntegrationTest extends FileTesterTestCase {
-		@SneakyThrows
 		protected GradleRunner newRunner() {
-			val runner = GradleRunner.create(GradleExecutor.gradleTestKit()).inDirectory(getWorkingDirectory().toFile()).configure(this::configureRunnerPluginDslClasspath).configure(this::configureRunnerBuildscriptClasspath).usingInitScript(getInitFile().toFile());
-			getInitFile().append(
-				"initscript {",
-				"  dependencies {",
-				"    classpath files(" + runner.getPluginClasspath().stream().map(File::toURI).map(Objects::toString).map(this::quote).collect(Collectors.joining(", ")) + ")",
-				"  }",
-				"}"
-			);
-			return runner;
+			val initScripts = initScripts();
+			GradleRunner result = GradleRunner.create(GradleExecutor.gradleTestKit()).inDirectory(getWorkingDirectory().toFile()).withPluginClasspath(initScripts.getPluginClasspath());
+			if (isProfiled()) {
+				// First so it profiles the other init scripts
+				result = result.usingInitScript(getWorkingDirectory().resolve(PROFILE_INIT_SCRIPT_NAME).toFile());
+			}
+			return result.usingInitScript(initScripts.getClasspathInitScript().toFile()).configure(WellBehavedPluginTester.this::configureRunnerGradleVersion).usingInitScript(getInitFile().toFile());
 		}
 
 		protected GradleRunner runner;
+		private GradleDaemonPool.Lease daemonLease;
+
+		protected boolean isProfiled() {
+			return profileBuilds;
+		}
 
 		@Override
 		public void setUp() throws Throwable {
 			super.setUp();
+			workspaceTemplate().materialize(getWorkingDirectory());
+			val profileInitScript = getWorkingDirectory().resolve(PROFILE_INIT_SCRIPT_NAME);
+			if (isProfiled() && !Files.exists(profileInitScript)) {
+				write(profileInitScript, BuildProfile.initScript(qualifiedPluginId, pluginType).getBytes(UTF_8));
+			}
 			runner = newRunner();
+
+			// Lease last so it is only held when the test case will tear down
+			daemonLease = daemonPool().acquire();
+			runner = runner.withGradleUserHomeDirectory(daemonLease.getGradleUserHomeDirectory().toFile());
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			try {
+				if (daemonLease != null) {
+					daemonLease.close();
+				}
+			} finally {
+				super.tearDown();
+			}
 		}
 
 		protected final BuildResult succeeds(String... tasks) {
-			return runner.withTasks(tasks).build();
+			val result = runner.withTasks(tasks).build();
+			profile().ifPresent(it -> {
+				if (configurationTimeBudget != null) {
+					assertThat("configuration time exceeds the budget, " + it, it.getConfigurationDuration().orElse(Duration.ZERO), lessThanOrEqualTo(configurationTimeBudget));
+				}
+			});
+			return result;
 		}
 
 		protected final BuildResult fails(String... tasks) {
-			return runner.withTasks(tasks).buildAndFail();
+			val result = runner.withTasks(tasks).buildAndFail();
+			profile();
+			return result;
+		}
+
+		@SneakyThrows
+		protected final Optional<BuildProfile> profile() {
+			val profileFile = getWorkingDirectory().resolve(BuildProfile.PROFILE_FILE_NAME);
+			if (!isProfiled() || !Files.exists(profileFile)) {
+				return Optional.empty();
+			}
+			val result = BuildProfile.read(profileFile);
+			Files.delete(profileFile); // in case the test case builds again
+			getTestCaseListener().buildProfiled(this, result);
+			return Optional.of(result);
 		}
 
 		protected final BuildScript getBuildFile() {
@@ -245,37 +762,6 @@ public final class WellBehavedPluginTester extends AbstractTester {
 		protected BuildScript buildScript(String path) {
 			return new BuildScript(getWorkingDirectory().resolve(path));
 		}
-
-		private GradleRunner configureRunnerPluginDslClasspath(GradleRunner runner) {
-			// TODO: Should this be a feature of Runner Kit
-			if (Thread.currentThread().getContextClassLoader().getResource("plugin-under-test-metadata.properties") == null) {
-				return runner.withPluginClasspath(Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator)).map(File::new).collect(toList()));
-			}
-			return runner.withPluginClasspath();
-		}
-
-		@SneakyThrows // TODO: GradleRunner#configure should accept functional that throws exception
-		private GradleRunner configureRunnerBuildscriptClasspath(GradleRunner runner) {
-			val initScript = new BuildScript(getWorkingDirectory().resolve("classpath.init.gradle"));
-			initScript.append(
-				"initscript {",
-				"  dependencies {",
-				"    classpath files(" + runner.getPluginClasspath().stream().map(File::toURI).map(Objects::toString).map(this::quote).collect(Collectors.joining(", ")) + ")",
-				"  }",
-				"}",
-				"beforeSettings { settings ->",
-				"  settings.buildscript.dependencies {",
-				"    classpath files(" + runner.getPluginClasspath().stream().map(File::toURI).map(Objects::toString).map(this::quote).collect(Collectors.joining(", ")) + ")",
-				"  }",
-				"  settings.include('a', 'b', 'c')", // Include sub-projects in-case the plugin misbehave on sub-projects
-				"}"
-			);
-			return runner.usingInitScript(initScript.toFile());
-		}
-
-		private String quote(String s) {
-			return "\"" + s + "\"";
-		}
 	}
 
 	private static class BuildScript {
@@ -285,8 +771,16 @@ public final class WellBehavedPluginTester extends AbstractTester {
 			this.buildScriptPath = buildScriptPath;
 		}
 
+		@SneakyThrows
+		public BuildScript overwrite(String... l) {
+			WorkspaceTemplate.unshare(buildScriptPath); // the script may be linked to the workspace template
+			Files.write(buildScriptPath, Arrays.asList(l), UTF_8);
+			return this;
+		}
+
 		@SneakyThrows
 		public BuildScript append(String... l) {
+			WorkspaceTemplate.unshare(buildScriptPath); // the script may be linked to the workspace template
 			write(buildScriptPath, Arrays.asList(l), UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
 			return this;
 		}
@@ -606,4 +1100,401 @@ public final class WellBehavedPluginTester extends AbstractTester {
 			succeeds();
 		}
 	}
+
+	/**
+	 * Plugins should configure in time proportional to the number of projects, plugins slow to configure are a pain on large builds.
+	 * The plugin overhead is the configuration time difference with the same build without the plugin, the best of a few builds to reduce the noise.
+	 */
+	private final class ConfigurationTimeScalesLinearly extends AbstractWellBehavedIntegrationTest {
+		private static final int MEASURED_BUILD_COUNT = 2;
+		// Overhead per project can double before being considered super-linear, i.e. noise and warm up
+		private static final long SUPER_LINEAR_FACTOR = 2;
+		private final int projectCount;
+		private final Duration perProjectBudget;
+
+		private ConfigurationTimeScalesLinearly(int projectCount, Duration perProjectBudget) {
+			this.projectCount = projectCount;
+			this.perProjectBudget = perProjectBudget;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return "configuration time scales linearly with the number of projects [" + SupportedTarget.Project + "]";
+		}
+
+		@Override
+		protected boolean isProfiled() {
+			return true;
+		}
+
+		@Override
+		public void doExecute() throws Throwable {
+			val smallProjectCount = projectCount / 10;
+			val smallOverhead = perProjectOverhead(smallProjectCount);
+			val largeOverhead = perProjectOverhead(projectCount);
+
+			assertThat("plugin configuration overhead per project with " + projectCount + " projects exceeds the budget",
+				largeOverhead, lessThanOrEqualTo(perProjectBudget));
+
+			// Overhead well under the budget is too small to tell noise from growth
+			if (largeOverhead.compareTo(perProjectBudget.dividedBy(4)) > 0) {
+				assertThat("plugin configuration overhead per project grows super-linearly, " + smallOverhead + " with " + smallProjectCount + " projects",
+					largeOverhead, lessThanOrEqualTo(smallOverhead.multipliedBy(SUPER_LINEAR_FACTOR)));
+			}
+		}
+
+		private Duration perProjectOverhead(int count) throws IOException {
+			for (int i = 1; i <= count; ++i) {
+				Files.createDirectories(getWorkingDirectory().resolve("p" + i));
+			}
+			getSettingsFile().overwrite("include((1.." + count + ").collect { \"p$it\" } as String[])");
+
+			Duration baseline = null;
+			Duration withPlugin = null;
+			for (int i = 0; i < MEASURED_BUILD_COUNT; ++i) {
+				getBuildFile().overwrite("");
+				baseline = min(baseline, configurationDuration());
+
+				getBuildFile().overwrite("allprojects {", "  " + appliesPluginToTarget(SupportedTarget.Project), "}");
+				withPlugin = min(withPlugin, configurationDuration());
+			}
+			return max(withPlugin.minus(baseline), Duration.ZERO).dividedBy(count);
+		}
+
+		private Duration configurationDuration() {
+			runner.withTasks("help").build();
+			return profile().flatMap(BuildProfile::getConfigurationDuration).orElseThrow(() -> new AssertionError("configuration time wasn't profiled"));
+		}
+
+		private Duration min(Duration a, Duration b) {
+			return a == null || b.compareTo(a) < 0 ? b : a;
+		}
+
+		private Duration max(Duration a, Duration b) {
+			return a.compareTo(b) < 0 ? b : a;
+		}
+	}
+
+	/**
+	 * Builds once, applying the plugin however possible, on behalf of multiple compatible test cases.
+	 * Instead of asserting, the build records the realized tasks and resolved configurations so one misbehaviour doesn't hide the others.
+	 */
+	private final class FusedWellBehavedBuild extends AbstractWellBehavedIntegrationTest {
+		private final SupportedTarget target;
+		private boolean executed = false;
+		private Throwable failure = null;
+		private List<String> realizedTaskPaths;
+		private List<String> resolvedConfigurationPaths;
+
+		private FusedWellBehavedBuild(SupportedTarget target) {
+			this.target = target;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return "fused well-behaved checks [" + target + "]";
+		}
+
+		public List<String> getRealizedTaskPaths() {
+			return realizedTaskPaths;
+		}
+
+		public List<String> getResolvedConfigurationPaths() {
+			return resolvedConfigurationPaths;
+		}
+
+		/**
+		 * Executes the fused build, only the first call builds.
+		 * Any failure is rethrown to each caller.
+		 */
+		public synchronized void executeOnce() throws Throwable {
+			if (!executed) {
+				executed = true;
+				try {
+					setUp();
+					try {
+						execute();
+					} finally {
+						tearDown();
+					}
+				} catch (Throwable t) {
+					failure = t;
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+		}
+
+		@Override
+		public void doExecute() throws Throwable {
+			// Applies the plugin however possible
+			buildScript(target.getBuildScriptName()).append(appliesPluginToTarget(target));
+
+			getBuildFile().append(
+				"def configuredTasks = []",
+				"def resolvedDependenciesPaths = []",
+				"allprojects {",
+				"  tasks.configureEach {",
+				"    configuredTasks << it",
+				"  }",
+				"  configurations.all { configuration ->",
+				"    // In case the configuration was already resolved...",
+				"    if (configuration.state == Configuration.State.RESOLVED) {",
+				"      resolvedDependenciesPaths << incoming.path",
+				"    } else {",
+				"      configuration.incoming.afterResolve { resolvedDep ->",
+				"        resolvedDependenciesPaths << resolvedDep.path",
+				"      }",
+				"    }",
+				"  }",
+				"}",
+				"",
+				"gradle.buildFinished {",
+				"  new File(rootDir, 'realized-tasks.txt').text = (configuredTasks*.path - [':help']).join('\\n')",
+				"  new File(rootDir, 'resolved-configurations.txt').text = resolvedDependenciesPaths.join('\\n')",
+				"}"
+			);
+
+			succeeds("help");
+
+			realizedTaskPaths = readLines(getWorkingDirectory().resolve("realized-tasks.txt"));
+			resolvedConfigurationPaths = readLines(getWorkingDirectory().resolve("resolved-configurations.txt"));
+		}
+
+		private List<String> readLines(Path path) throws IOException {
+			return Files.readAllLines(path, UTF_8).stream().filter(it -> !it.isEmpty()).collect(toList());
+		}
+	}
+
+	/**
+	 * Skips the specified test case when it already passed with the same inputs, see {@link TestResultCache}.
+	 * The display name is kept as-is so caching doesn't change how test cases are reported.
+	 */
+	private final class CachedTestCase implements TestCase {
+		private final TestCase testCase;
+		private boolean cached = false;
+
+		private CachedTestCase(TestCase testCase) {
+			this.testCase = testCase;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName();
+		}
+
+		@Override
+		public String getGroupName() {
+			return testCase.getGroupName();
+		}
+
+		@Override
+		public void setUp() throws Throwable {
+			cached = resultCache().isPassed(getDisplayName());
+			if (!cached) {
+				testCase.setUp();
+			}
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			if (cached) {
+				return;
+			}
+
+			try {
+				testCase.execute();
+			} catch (TestAbortedException t) {
+				throw t;
+			} catch (Throwable t) {
+				resultCache().markFailed(getDisplayName());
+				throw t;
+			}
+			resultCache().markPassed(getDisplayName());
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			if (!cached) {
+				testCase.tearDown();
+			}
+		}
+	}
+
+	/**
+	 * Executes the specified test case as part of the Gradle version matrix, see {@link #gradleDistributions(Path...)}.
+	 * The display name ends with the Gradle version so each version reports its own results.
+	 */
+	private static final class GradleVersionTestCase implements TestCase {
+		private final TestCase testCase;
+		private final String gradleVersion;
+
+		private GradleVersionTestCase(TestCase testCase, String gradleVersion) {
+			this.testCase = testCase;
+			this.gradleVersion = gradleVersion;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName() + " [Gradle " + gradleVersion + "]";
+		}
+
+		@Override
+		public String getGroupName() {
+			return testCase.getGroupName() + " [Gradle " + gradleVersion + "]";
+		}
+
+		@Override
+		public void setUp() throws Throwable {
+			testCase.setUp();
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			testCase.execute();
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			testCase.tearDown();
+		}
+	}
+
+	/**
+	 * Asserts on the outcome of a fused build on behalf of the specified test case.
+	 * The display name is kept as-is so fusing doesn't change how failures are reported.
+	 */
+	private static final class FusedTestCase implements TestCase {
+		private final TestCase testCase;
+		private final FusedWellBehavedBuild build;
+		private final Consumer<? super FusedWellBehavedBuild> assertion;
+
+		private FusedTestCase(TestCase testCase, FusedWellBehavedBuild build, Consumer<? super FusedWellBehavedBuild> assertion) {
+			this.testCase = testCase;
+			this.build = build;
+			this.assertion = assertion;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName();
+		}
+
+		@Override
+		public String getGroupName() {
+			return testCase.getGroupName();
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			build.executeOnce();
+			assertion.accept(build);
+		}
+	}
+
+	/**
+	 * Executes the specified test case once, on behalf of itself and of the test cases depending on it.
+	 * The dependents are skipped when it fails, with its failure as the cause, instead of each building to fail the same way.
+	 */
+	private static final class PrerequisiteTestCase implements TestCase {
+		private final TestCase testCase;
+		private boolean executed = false;
+		private Throwable failure = null;
+
+		private PrerequisiteTestCase(TestCase testCase) {
+			this.testCase = testCase;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName();
+		}
+
+		@Override
+		public String getGroupName() {
+			return testCase.getGroupName();
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			executeOnce();
+		}
+
+		/**
+		 * Executes the prerequisite, only the first call executes.
+		 * Any failure is rethrown to each caller.
+		 */
+		public synchronized void executeOnce() throws Throwable {
+			if (!executed) {
+				executed = true;
+				try {
+					testCase.setUp();
+					try {
+						testCase.execute();
+					} finally {
+						testCase.tearDown();
+					}
+				} catch (Throwable t) {
+					failure = t;
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+		}
+
+		public TestCase dependent(TestCase testCase) {
+			return new DependentTestCase(testCase, this);
+		}
+	}
+
+	/**
+	 * Executes the specified test case only when its prerequisite passed, the prerequisite executing first if needed.
+	 * The display name is kept as-is so the dependency doesn't change how test cases are reported.
+	 */
+	private static final class DependentTestCase implements TestCase {
+		private final TestCase testCase;
+		private final PrerequisiteTestCase prerequisite;
+
+		private DependentTestCase(TestCase testCase, PrerequisiteTestCase prerequisite) {
+			this.testCase = testCase;
+			this.prerequisite = prerequisite;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return testCase.getDisplayName();
+		}
+
+		// Executed where its prerequisite executes, so the prerequisite's failure is reported alongside the skipped dependents
+		@Override
+		public String getGroupName() {
+			return prerequisite.getGroupName();
+		}
+
+		@Override
+		public void setUp() throws Throwable {
+			try {
+				prerequisite.executeOnce();
+			} catch (TestAbortedException t) {
+				// the test case decides on its own, i.e. it may not need the missing plugin id
+			} catch (Throwable t) {
+				throw new PrerequisiteFailedException(testCase.getDisplayName(), prerequisite.getDisplayName(), t);
+			}
+			testCase.setUp();
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			testCase.execute();
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			testCase.tearDown();
+		}
+	}
 }
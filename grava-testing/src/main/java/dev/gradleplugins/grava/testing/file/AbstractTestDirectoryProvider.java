@@ -8,10 +8,12 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 import static java.util.Arrays.stream;
@@ -70,6 +72,19 @@ abstract class AbstractTestDirectoryProvider implements TestDirectoryProvider, A
 		}
 	}
 
+	/**
+	 * Deletes the test directory in the background, see {@link BackgroundDirectoryDeleter}.
+	 * Contrary to {@link #cleanup()}, it returns as soon as the test directory location is free.
+	 *
+	 * @return a future completing with the number of attempts it took to delete the test directory, never null
+	 */
+	public CompletableFuture<Integer> cleanupInBackground() {
+		if (cleanup && dir != null && Files.exists(dir)) {
+			return BackgroundDirectoryDeleter.getInstance().delete(dir);
+		}
+		return CompletableFuture.completedFuture(0);
+	}
+
 	@Override
 	public void close() throws IOException {
 		cleanup();
@@ -167,7 +182,11 @@ abstract class AbstractTestDirectoryProvider implements TestDirectoryProvider, A
 			}
 			Path dir = root.resolve(getPrefix()).resolve(randomPrefix);
 			try {
-				return Files.createDirectories(dir);
+				Files.createDirectories(dir.getParent());
+				// Use non-recursive creation to detect concurrent providers picking the same random prefix
+				return Files.createDirectory(dir);
+			} catch (FileAlreadyExistsException e) {
+				continue;
 			} catch (IOException e) {
 				return ExceptionUtils.rethrow(e);
 			}
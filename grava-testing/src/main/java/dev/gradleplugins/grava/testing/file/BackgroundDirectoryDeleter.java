@@ -0,0 +1,103 @@
+package dev.gradleplugins.grava.testing.file;
+
+import dev.gradleplugins.grava.testing.util.RetryUtils;
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes directories on a bounded background executor.
+ *
+ * The directory is first renamed to a uniquely named tombstone so its location is immediately free and the caller can move on.
+ * The tombstone is then deleted in the background, retrying while files are still held open.
+ * Pending deletions are drained when the JVM shuts down, the deletions scheduled afterward are executed by the caller.
+ */
+public final class BackgroundDirectoryDeleter {
+	private static final String CLEANUP_THREAD_NAME = "background-directory-deleter-drain";
+	private static final String TOMBSTONE_SUFFIX = ".tombstone-";
+	private static final int MAXIMUM_THREAD_COUNT = 2;
+	private static final int MAXIMUM_PENDING_DELETIONS = 256;
+	private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+	private static final BackgroundDirectoryDeleter INSTANCE = new BackgroundDirectoryDeleter();
+	private final AtomicBoolean shutdownRegistered = new AtomicBoolean();
+	private final ThreadPoolExecutor executor;
+
+	BackgroundDirectoryDeleter() {
+		val threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(MAXIMUM_THREAD_COUNT, MAXIMUM_THREAD_COUNT, 10, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<>(MAXIMUM_PENDING_DELETIONS), runnable -> {
+				val result = new Thread(runnable, "background-directory-deleter-" + threadNumber.incrementAndGet());
+				result.setDaemon(true);
+				return result;
+			},
+			// When too many deletions are pending, the caller deletes by itself which naturally throttles it
+			// Unlike CallerRunsPolicy, it also deletes by itself once the executor is drained instead of discarding the deletion
+			(runnable, it) -> runnable.run());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static BackgroundDirectoryDeleter getInstance() {
+		return INSTANCE;
+	}
+
+	private void maybeRegisterDrain() {
+		if (shutdownRegistered.compareAndSet(false, true)) {
+			Runtime.getRuntime().addShutdownHook(new Thread(this::drain, CLEANUP_THREAD_NAME));
+		}
+	}
+
+	/**
+	 * Schedules the deletion of the specified directory.
+	 *
+	 * @param directory  the directory to delete, must not be null
+	 * @return a future completing with the number of attempts it took to delete the directory, never null
+	 */
+	public CompletableFuture<Integer> delete(Path directory) {
+		maybeRegisterDrain();
+		val tombstone = toTombstone(directory);
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return RetryUtils.retry(100, Duration.ofMillis(100), () -> {
+					if (Files.exists(tombstone)) {
+						FileUtils.forceDelete(tombstone.toFile());
+					}
+				});
+			} catch (InterruptedException | IOException e) {
+				return ExceptionUtils.rethrow(e);
+			}
+		}, executor);
+	}
+
+	private static Path toTombstone(Path directory) {
+		// A unique name, so a directory reused and deleted again never collides with a pending tombstone
+		val tombstone = directory.resolveSibling(directory.getFileName() + TOMBSTONE_SUFFIX + UUID.randomUUID());
+		try {
+			return Files.move(directory, tombstone, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// i.e. a file is still held open on Windows, delete the directory in place
+			return directory;
+		}
+	}
+
+	void drain() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package dev.gradleplugins.grava.testing.file;
+
+import dev.gradleplugins.grava.testing.util.HashUtils;
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A fixture tree built once and materialized into many test directories.
+ *
+ * Files are hard linked into the destination whenever the file system allows it, falling back to a copy otherwise.
+ * Because a hard link shares its content with the template, a materialized file must be {@link #unshare(Path) unshared} before being modified.
+ */
+public final class WorkspaceTemplate {
+	// NOTE: the space in the directory name is intentional
+	private static final Path DEFAULT_ROOT = new File("build/tmp/test templates").toPath();
+	private final Path directory;
+
+	private WorkspaceTemplate(Path directory) {
+		this.directory = directory;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * The directory containing the template, it must not be modified.
+	 *
+	 * @return the template directory, never null
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Materializes this template into the specified directory.
+	 *
+	 * @param destination  the directory to materialize the template into, must not be null
+	 */
+	public void materialize(Path destination) {
+		try {
+			Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					Files.createDirectories(destination.resolve(directory.relativize(dir).toString()));
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					linkOrCopy(file, destination.resolve(directory.relativize(file).toString()));
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void linkOrCopy(Path source, Path destination) throws IOException {
+		try {
+			Files.createLink(destination, source);
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			// i.e. cross-device link or file system without hard link support
+			Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Breaks the sharing between a materialized file and its template, so the file can be modified safely.
+	 * Does nothing if the file doesn't exist or isn't shared.
+	 *
+	 * @param file  the file about to be modified, must not be null
+	 * @throws IOException if the file cannot be unshared
+	 */
+	public static void unshare(Path file) throws IOException {
+		if (!Files.exists(file) || !isShared(file)) {
+			return;
+		}
+
+		val temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			Files.copy(file, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+			// Replacing the directory entry leaves the template content untouched
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	private static boolean isShared(Path file) {
+		try {
+			return ((Number) Files.getAttribute(file, "unix:nlink")).intValue() > 1;
+		} catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+			return true; // can't tell, assume shared
+		}
+	}
+
+	public static final class Builder {
+		private final Map<String, String> files = new TreeMap<>();
+		private final Set<String> directories = new TreeSet<>();
+
+		public Builder file(String path, String content) {
+			files.put(Objects.requireNonNull(path), Objects.requireNonNull(content));
+			return this;
+		}
+
+		public Builder directory(String path) {
+			directories.add(Objects.requireNonNull(path));
+			return this;
+		}
+
+		/**
+		 * Writes the template once to a content addressed location.
+		 * Templates with the same content share the same directory.
+		 *
+		 * @return a workspace template, never null
+		 */
+		public WorkspaceTemplate build() {
+			val directory = DEFAULT_ROOT.resolve(hashOf(files, directories)).toAbsolutePath();
+			if (!Files.exists(directory)) {
+				write(directory);
+			}
+			return new WorkspaceTemplate(directory);
+		}
+
+		private void write(Path directory) {
+			try {
+				Files.createDirectories(directory.getParent());
+				val temporaryDirectory = Files.createTempDirectory(directory.getParent(), directory.getFileName().toString());
+				try {
+					for (String path : directories) {
+						Files.createDirectories(temporaryDirectory.resolve(path));
+					}
+					for (Map.Entry<String, String> file : files.entrySet()) {
+						val path = temporaryDirectory.resolve(file.getKey());
+						Files.createDirectories(path.getParent());
+						Files.write(path, file.getValue().getBytes(UTF_8));
+					}
+					Files.move(temporaryDirectory, directory, StandardCopyOption.ATOMIC_MOVE);
+				} catch (FileSystemException e) {
+					// Another writer won the race, the content is identical
+					if (!Files.exists(directory)) {
+						throw e;
+					}
+				} finally {
+					if (Files.exists(temporaryDirectory)) {
+						FileUtils.deleteDirectory(temporaryDirectory.toFile());
+					}
+				}
+			} catch (IOException e) {
+				ExceptionUtils.rethrow(e);
+			}
+		}
+
+		private static String hashOf(Map<String, String> files, Set<String> directories) {
+			val digest = HashUtils.newDigest();
+			for (String path : directories) {
+				digest.update(("d:" + path + "\0").getBytes(UTF_8));
+			}
+			for (Map.Entry<String, String> file : files.entrySet()) {
+				digest.update(("f:" + file.getKey() + "\0" + file.getValue().length() + "\0").getBytes(UTF_8));
+				digest.update(file.getValue().getBytes(UTF_8));
+			}
+			return HashUtils.shortHash(digest);
+		}
+	}
+}
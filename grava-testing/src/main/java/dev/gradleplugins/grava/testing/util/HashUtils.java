@@ -0,0 +1,102 @@
+package dev.gradleplugins.grava.testing.util;
+
+import lombok.val;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Hashing utilities for naming content addressed files and directories.
+ */
+public final class HashUtils {
+	// Keep the paths short to avoid the 260 char path length limitation on Windows
+	private static final int SHORT_HASH_LENGTH = 16;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private HashUtils() {}
+
+	/**
+	 * Creates a new digest to hash content with, see {@link #shortHash(MessageDigest)}.
+	 *
+	 * @return a SHA-256 digest, never null
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			return ExceptionUtils.rethrow(e);
+		}
+	}
+
+	/**
+	 * Completes the specified digest into a short hexadecimal hash, suitable for file names.
+	 *
+	 * @param digest  the digest to complete, must not be null
+	 * @return the first 16 hexadecimal characters of the digest, never null
+	 */
+	public static String shortHash(MessageDigest digest) {
+		byte[] bytes = digest.digest();
+		char[] result = new char[SHORT_HASH_LENGTH];
+		for (int i = 0; i < SHORT_HASH_LENGTH / 2; ++i) {
+			result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+			result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+		}
+		return new String(result);
+	}
+
+	/**
+	 * Updates the specified digest with the content of a file or, recursively, a directory.
+	 * Only the content matters, not the location, i.e. the same jar rebuilt elsewhere hashes the same.
+	 *
+	 * @param digest  the digest to update, must not be null
+	 * @param path  the file or directory to hash, must not be null, missing files are ignored
+	 * @throws IOException if the content can't be read
+	 */
+	public static void hashContent(MessageDigest digest, Path path) throws IOException {
+		if (Files.isDirectory(path)) {
+			final List<Path> files;
+			try (Stream<Path> stream = Files.walk(path)) {
+				files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			}
+			for (Path file : files) {
+				digest.update(path.relativize(file).toString().replace(File.separatorChar, '/').getBytes(UTF_8));
+				digest.update((byte) 0);
+				hashFile(digest, file);
+			}
+		} else if (Files.isRegularFile(path)) {
+			hashFile(digest, path);
+		}
+	}
+
+	private static void hashFile(MessageDigest digest, Path file) throws IOException {
+		val buffer = new byte[8192];
+		try (InputStream inStream = Files.newInputStream(file)) {
+			int count;
+			while ((count = inStream.read(buffer)) != -1) {
+				digest.update(buffer, 0, count);
+			}
+		}
+	}
+
+	/**
+	 * Hashes the specified content into a short hexadecimal hash, suitable for file names.
+	 *
+	 * @param content  the content to hash, must not be null
+	 * @return the first 16 hexadecimal characters of the content's SHA-256, never null
+	 */
+	public static String shortHash(String content) {
+		MessageDigest digest = newDigest();
+		digest.update(content.getBytes(UTF_8));
+		return shortHash(digest);
+	}
+}
@@ -0,0 +1,53 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BuildProfileTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void readsTimingsBetweenLifecycleEvents() throws IOException {
+		val subject = read("settingsEvaluated=100", "projectsLoaded=150", "projectsEvaluated=400", "taskGraphReady=450", "pluginApply=200");
+
+		assertThat(subject.getSettingsDuration(), equalTo(Optional.of(Duration.ofNanos(100))));
+		assertThat(subject.getConfigurationDuration(), equalTo(Optional.of(Duration.ofNanos(250))));
+		assertThat(subject.getTaskGraphDuration(), equalTo(Optional.of(Duration.ofNanos(50))));
+		assertThat(subject.getPluginApplyDuration(), equalTo(Optional.of(Duration.ofNanos(200))));
+	}
+
+	@Test
+	void leavesOutTimingsOfLifecycleEventsNotReached() throws IOException {
+		val subject = read("settingsEvaluated=100", "projectsLoaded=150");
+
+		assertThat(subject.getSettingsDuration(), equalTo(Optional.of(Duration.ofNanos(100))));
+		assertThat(subject.getConfigurationDuration(), equalTo(Optional.empty()));
+		assertThat(subject.getTaskGraphDuration(), equalTo(Optional.empty()));
+		assertThat(subject.getPluginApplyDuration(), equalTo(Optional.empty()));
+	}
+
+	@Test
+	void profilesPluginUnderTestByIdAndType() {
+		assertThat(BuildProfile.initScript("foo.bar", WellBehavedTestPlugin.class),
+			allOf(containsString("details.pluginId == 'foo.bar'"), containsString("details.pluginClass?.name == '" + WellBehavedTestPlugin.class.getName() + "'")));
+		assertThat(BuildProfile.initScript("foo.bar", null), not(containsString("details.pluginClass")));
+	}
+
+	private BuildProfile read(String... lines) throws IOException {
+		val file = testDirectory.resolve(BuildProfile.PROFILE_FILE_NAME);
+		Files.write(file, String.join("\n", lines).getBytes(UTF_8));
+		return BuildProfile.read(file);
+	}
+}
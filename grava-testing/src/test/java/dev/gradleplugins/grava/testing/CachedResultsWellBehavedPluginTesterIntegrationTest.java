@@ -0,0 +1,39 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.ThrowingTestPlugin;
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.MultipleFailuresError;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachedResultsWellBehavedPluginTesterIntegrationTest {
+	@TempDir Path cacheDirectory;
+
+	@Test
+	void skipsTestCasesPassedWithSameInputs() {
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").cacheResults(cacheDirectory).testWellBehavedPlugin();
+
+		val report = new TestCaseTimingReport();
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").cacheResults(cacheDirectory).listener(report).testWellBehavedPlugin();
+		assertThat(report.getTimings(), not(empty()));
+		for (TestCaseTimingReport.TestCaseTiming timing : report.getTimings()) {
+			assertThat(timing.getDisplayName(), timing.getTotalDuration(), lessThan(Duration.ofSeconds(1)));
+		}
+	}
+
+	@Test
+	void executesFailedTestCasesAgain() {
+		assertThrows(MultipleFailuresError.class, new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class).cacheResults(cacheDirectory)::testWellBehavedPlugin);
+
+		val ex = assertThrows(MultipleFailuresError.class, new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class).cacheResults(cacheDirectory)::testWellBehavedPlugin);
+		assertThat(ex.getMessage(), allOf(startsWith("Plugin is not well-behaved"), containsString("can apply plugin by id using apply(plugin: <class>)")));
+	}
+}
@@ -0,0 +1,43 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.MultipleFailuresError;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConfigurationScalingWellBehavedPluginTesterIntegrationTest {
+	@Test
+	void canCheckConfigurationScalingOfWellBehavedPlugin() {
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").configurationScaling(100, Duration.ofMillis(50)).testWellBehavedPlugin();
+	}
+
+	@Test
+	void failsWhenPerProjectConfigurationOverheadExceedsBudget() {
+		val ex = assertThrows(MultipleFailuresError.class, new WellBehavedPluginTester().pluginClass(SlowToApplyPlugin.class).configurationScaling(20, Duration.ofMillis(5))::testWellBehavedPlugin);
+		assertThat(ex.getMessage(), allOf(startsWith("Plugin is not well-behaved"), containsString("configuration time scales linearly with the number of projects")));
+	}
+
+	@Test
+	void throwsExceptionForTooFewProjects() {
+		assertThrows(IllegalArgumentException.class, () -> new WellBehavedPluginTester().configurationScaling(5, Duration.ofMillis(50)));
+	}
+
+	public static class SlowToApplyPlugin implements Plugin<Project> {
+		@Override
+		public void apply(Project target) {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FusedWellBehavedPluginTesterIntegrationTest {
+	@Test
+	void canFuseTestCasesOfWellBehavedPlugin() {
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").fuseCompatibleTestCases().testWellBehavedPlugin();
+	}
+
+	@Test
+	void reportsEachMisbehaviourOfFusedTestCases() {
+		val ex = assertThrows(AssertionError.class, new WellBehavedPluginTester().pluginClass(RealizedTasksAndResolveConfigurationPlugin.class).fuseCompatibleTestCases()::testWellBehavedPlugin);
+		assertThat(ex.getMessage(), allOf(startsWith("Plugin is not well-behaved"), containsString("does not realize task"), containsString("does not resolve configuration"), not(containsString("can execute help task"))));
+	}
+
+	public static class RealizedTasksAndResolveConfigurationPlugin implements Plugin<Project> {
+		@Override
+		public void apply(Project target) {
+			target.getTasks().create("foo");
+			target.getConfigurations().create("bar").resolve();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GradleDaemonPoolTest {
+	private final Set<Path> warmUpDirectories = ConcurrentHashMap.newKeySet();
+	private final BiConsumer<Path, Path> warmUp = (gradleUserHome, workingDirectory) -> warmUpDirectories.add(workingDirectory);
+	@TempDir Path testDirectory;
+	private GradleDaemonPool subject;
+
+	@AfterEach
+	void closePool() {
+		if (subject != null) {
+			subject.close();
+		}
+	}
+
+	@Test
+	void warmsUpOnceBeforeFirstLease() throws IOException {
+		subject = GradleDaemonPool.of(testDirectory, Collections.singletonList(file("plugin.jar", "plugin")), "6.8", 1, warmUp);
+		assertThat(warmUpDirectories, empty());
+
+		subject.acquire().close();
+		subject.acquire().close();
+		assertThat(warmUpDirectories, hasSize(1));
+	}
+
+	@Test
+	void warmsUpEachDaemonConcurrently() throws IOException {
+		val inFlight = new CountDownLatch(3);
+		subject = GradleDaemonPool.of(testDirectory, Collections.singletonList(file("plugin.jar", "plugin")), "6.8", 3, (gradleUserHome, workingDirectory) -> {
+			inFlight.countDown();
+			try {
+				// Only completes when all warm-up builds are in-flight together
+				if (inFlight.await(10, TimeUnit.SECONDS)) {
+					warmUpDirectories.add(workingDirectory);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		subject.acquire().close();
+		assertThat(warmUpDirectories, hasSize(3));
+	}
+
+	@Test
+	void leasesPoolGradleUserHome() throws IOException {
+		subject = GradleDaemonPool.of(testDirectory, Collections.singletonList(file("plugin.jar", "plugin")), "6.8", 1, warmUp);
+
+		try (val firstLease = subject.acquire(); val secondLease = subject.acquire()) {
+			assertThat(firstLease.getGradleUserHomeDirectory(), equalTo(subject.getGradleUserHomeDirectory()));
+			assertThat(secondLease.getGradleUserHomeDirectory(), equalTo(subject.getGradleUserHomeDirectory()));
+		}
+	}
+
+	@Test
+	void pinsPoolByPluginClasspathContentAndGradleVersion() throws IOException {
+		val classpath = Collections.singletonList(file("plugin.jar", "plugin"));
+		assertThat(GradleDaemonPool.keyOf(classpath, "6.8"), equalTo(GradleDaemonPool.keyOf(Collections.singletonList(file("elsewhere/plugin.jar", "plugin")), "6.8")));
+		assertThat(GradleDaemonPool.keyOf(classpath, "6.8"), not(equalTo(GradleDaemonPool.keyOf(classpath, "6.7"))));
+		assertThat(GradleDaemonPool.keyOf(classpath, "6.8"), not(equalTo(GradleDaemonPool.keyOf(Collections.singletonList(file("rebuilt/plugin.jar", "rebuilt plugin")), "6.8"))));
+	}
+
+	@Test
+	void stopsDaemonsWhenClosed() throws IOException {
+		subject = GradleDaemonPool.of(testDirectory, Collections.singletonList(file("plugin.jar", "plugin")), "6.8", 1, warmUp);
+		val registry = Files.createDirectories(subject.getGradleUserHomeDirectory().resolve("daemon/6.8")).resolve("registry.bin");
+		Files.createFile(registry);
+
+		subject.close();
+		assertThat(Files.exists(registry), is(false));
+	}
+
+	@Test
+	void stopsDaemonsOnceOutstandingLeasesAreReleased() throws IOException {
+		subject = GradleDaemonPool.of(testDirectory, Collections.singletonList(file("plugin.jar", "plugin")), "6.8", 1, warmUp);
+		val lease = subject.acquire();
+		val registry = Files.createDirectories(subject.getGradleUserHomeDirectory().resolve("daemon/6.8")).resolve("registry.bin");
+		Files.createFile(registry);
+
+		subject.close();
+		assertThat(Files.exists(registry), is(true));
+
+		lease.close();
+		assertThat(Files.exists(registry), is(false));
+	}
+
+	@Test
+	void throwsExceptionWhenAcquiringFromClosedPool() throws IOException {
+		subject = GradleDaemonPool.of(testDirectory, Collections.singletonList(file("plugin.jar", "plugin")), "6.8", 1, warmUp);
+		subject.close();
+		assertThrows(IllegalStateException.class, subject::acquire);
+	}
+
+	private File file(String path, String content) throws IOException {
+		val result = testDirectory.resolve(path);
+		Files.createDirectories(result.getParent());
+		Files.write(result, content.getBytes(UTF_8));
+		return result.toFile();
+	}
+}
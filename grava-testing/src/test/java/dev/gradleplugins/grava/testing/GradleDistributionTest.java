@@ -0,0 +1,99 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GradleDistributionTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void detectsVersionOfInstallationDirectory() throws IOException {
+		val installation = createInstallation(testDirectory.resolve("gradle"), "6.8.1");
+
+		val distribution = GradleDistribution.of(installation, testDirectory.resolve("unpacked"));
+		assertThat(distribution.getVersion(), equalTo("6.8.1"));
+		assertThat(distribution.getInstallationDirectory(), equalTo(installation.toAbsolutePath()));
+	}
+
+	@Test
+	void unpacksDistributionArchive() throws IOException {
+		val archive = createArchive(testDirectory.resolve("gradle-7.0-bin.zip"), "7.0");
+
+		val distribution = GradleDistribution.of(archive, testDirectory.resolve("unpacked"));
+		assertThat(distribution.getVersion(), equalTo("7.0"));
+		assertThat(distribution.getInstallationDirectory().getFileName().toString(), equalTo("gradle-7.0"));
+		assertThat(Files.exists(distribution.getInstallationDirectory().resolve("lib/gradle-launcher-7.0.jar")), is(true));
+	}
+
+	@Test
+	void sharesUnpackedDistributionArchive() throws IOException, InterruptedException {
+		val archive = createArchive(testDirectory.resolve("gradle-7.0-bin.zip"), "7.0");
+
+		val result = new ConcurrentLinkedQueue<Path>();
+		val threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; ++i) {
+			threads.add(new Thread(() -> result.add(GradleDistribution.of(archive, testDirectory.resolve("unpacked")).getInstallationDirectory())));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(result, hasSize(4));
+		assertThat(result.stream().distinct().count(), equalTo(1L));
+	}
+
+	@Test
+	void startsOverInterruptedUnpacking() throws IOException {
+		val archive = createArchive(testDirectory.resolve("gradle-7.0-bin.zip"), "7.0");
+		val unpackDirectory = GradleDistribution.of(archive, testDirectory.resolve("unpacked")).getInstallationDirectory().getParent();
+		Files.delete(unpackDirectory.resolve(".unpacked"));
+		Files.createDirectories(unpackDirectory.resolve("gradle-partial"));
+
+		val installation = GradleDistribution.of(archive, testDirectory.resolve("unpacked")).getInstallationDirectory();
+		assertThat(installation.getFileName().toString(), equalTo("gradle-7.0"));
+		assertThat(Files.exists(unpackDirectory.resolve("gradle-partial")), is(false));
+	}
+
+	@Test
+	void throwsExceptionForUnknownDistribution() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> GradleDistribution.of(Files.createDirectories(testDirectory.resolve("not-gradle"))));
+		assertThrows(IllegalArgumentException.class, () -> GradleDistribution.of(Files.createFile(testDirectory.resolve("not-gradle.zip"))));
+		assertThrows(IllegalArgumentException.class, () -> GradleDistribution.of(testDirectory.resolve("gradle-7.0-bin.zip")));
+	}
+
+	private static Path createInstallation(Path directory, String version) throws IOException {
+		Files.createDirectories(directory.resolve("lib"));
+		Files.createFile(directory.resolve("lib/gradle-launcher-" + version + ".jar"));
+		return directory;
+	}
+
+	private static Path createArchive(Path archive, String version) throws IOException {
+		List<String> entries = new ArrayList<>();
+		entries.add("gradle-" + version + "/");
+		entries.add("gradle-" + version + "/lib/");
+		entries.add("gradle-" + version + "/lib/gradle-launcher-" + version + ".jar");
+		try (OutputStream outStream = Files.newOutputStream(archive); val zipStream = new ZipOutputStream(outStream)) {
+			for (String entry : entries) {
+				zipStream.putNextEntry(new ZipEntry(entry));
+				zipStream.closeEntry();
+			}
+		}
+		return archive;
+	}
+}
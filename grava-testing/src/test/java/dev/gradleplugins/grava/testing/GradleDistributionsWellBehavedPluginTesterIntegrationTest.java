@@ -0,0 +1,48 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GradleDistributionsWellBehavedPluginTesterIntegrationTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void executesEachTestCaseAgainstEachGradleDistribution() throws IOException {
+		val tester = new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin")
+			.gradleDistributions(createInstallation("6.8.1"), createInstallation("7.0"));
+
+		val displayNames = tester.stream().map(TestCase::getDisplayName).collect(Collectors.toList());
+		assertThat(displayNames, hasItems("can execute help task [Project] [Gradle 6.8.1]", "can execute help task [Project] [Gradle 7.0]"));
+		assertThat(displayNames.stream().filter(it -> it.endsWith(" [Gradle 6.8.1]")).count(), equalTo(displayNames.stream().filter(it -> it.endsWith(" [Gradle 7.0]")).count()));
+	}
+
+	@Test
+	void keepsConfiguredParallelism() throws IOException {
+		val tester = new WellBehavedPluginTester().parallelism(1).gradleDistributions(createInstallation("6.8.1"), createInstallation("7.0"));
+
+		assertThat(tester.getParallelism(), equalTo(1));
+	}
+
+	@Test
+	void throwsExceptionForUnknownGradleDistribution() {
+		assertThrows(IllegalArgumentException.class, () -> new WellBehavedPluginTester().gradleDistributions(testDirectory));
+	}
+
+	private Path createInstallation(String version) throws IOException {
+		val result = testDirectory.resolve("gradle-" + version);
+		Files.createDirectories(result.resolve("lib"));
+		Files.createFile(result.resolve("lib/gradle-launcher-" + version + ".jar"));
+		return result;
+	}
+}
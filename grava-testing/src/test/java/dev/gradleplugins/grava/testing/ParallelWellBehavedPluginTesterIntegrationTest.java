@@ -0,0 +1,30 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.ThrowingTestPlugin;
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.MultipleFailuresError;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelWellBehavedPluginTesterIntegrationTest {
+	@Test
+	void canExecuteWellBehavedPluginInParallel() {
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").parallelism(4).testWellBehavedPlugin();
+	}
+
+	@Test
+	void reportsAllFailuresWhenExecutingInParallel() {
+		val ex = assertThrows(MultipleFailuresError.class,
+			new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class).parallelism(4)::testWellBehavedPlugin);
+		assertThat(ex.getMessage(), allOf(startsWith("Plugin is not well-behaved"), containsString("can apply plugin by id using apply(plugin: <class>)"), not(containsString("can execute help task"))));
+	}
+
+	@Test
+	void throwsExceptionForNonPositiveParallelism() {
+		assertThrows(IllegalArgumentException.class, () -> new WellBehavedPluginTester().parallelism(0));
+	}
+}
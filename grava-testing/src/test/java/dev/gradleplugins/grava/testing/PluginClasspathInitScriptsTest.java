@@ -0,0 +1,36 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class PluginClasspathInitScriptsTest {
+	@Test
+	void sharesClasspathInitScriptForSamePluginClasspath() {
+		val classpath = Arrays.asList(new File("plugin.jar"), new File("dependency.jar"));
+		assertThat(PluginClasspathInitScripts.of(classpath).getClasspathInitScript(),
+			equalTo(PluginClasspathInitScripts.of(classpath).getClasspathInitScript()));
+	}
+
+	@Test
+	void writesDifferentClasspathInitScriptForDifferentPluginClasspath() {
+		assertThat(PluginClasspathInitScripts.of(Collections.singletonList(new File("plugin.jar"))).getClasspathInitScript(),
+			not(equalTo(PluginClasspathInitScripts.of(Collections.singletonList(new File("other-plugin.jar"))).getClasspathInitScript())));
+	}
+
+	@Test
+	void writesClasspathInitScriptContent() throws IOException {
+		val subject = PluginClasspathInitScripts.of(Collections.singletonList(new File("plugin.jar")));
+		assertThat(new String(Files.readAllBytes(subject.getClasspathInitScript()), UTF_8),
+			allOf(startsWith(subject.getInitScriptClasspath()), containsString(new File("plugin.jar").toURI().toString())));
+	}
+}
@@ -0,0 +1,64 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.ThrowingTestPlugin;
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.MultipleFailuresError;
+import org.opentest4j.TestAbortedException;
+
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrerequisiteWellBehavedPluginTesterIntegrationTest {
+	@Test
+	void skipsChecksApplyingPluginWhenItDoesNotApply() {
+		val report = new TestCaseTimingReport();
+		assertThrows(MultipleFailuresError.class, new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class).listener(report)::testWellBehavedPlugin);
+
+		assertThat(outcomeOf(report, "can apply plugin by id using apply(plugin: <class>) [Project]"), equalTo(TestCaseTimingReport.Outcome.Failed));
+		assertThat(outcomeOf(report, "can execute help task [Project]"), equalTo(TestCaseTimingReport.Outcome.Aborted));
+		assertThat(outcomeOf(report, "can resolve all domain objects [Project]"), equalTo(TestCaseTimingReport.Outcome.Aborted));
+	}
+
+	@Test
+	void reportsPrerequisiteFailureAsCauseOfSkippedChecks() {
+		val testCase = new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class).stream().filter(it -> it.getDisplayName().equals("can execute help task [Project]")).findFirst().orElseThrow(AssertionError::new);
+
+		val ex = assertThrows(TestAbortedException.class, testCase::setUp);
+		assertThat(ex.getMessage(), containsString("can apply plugin by id using apply(plugin: <class>) [Project]"));
+		assertThat(ex.getCause(), notNullValue());
+	}
+
+	@Test
+	void listsSkippedChecksWithTheirFailedPrerequisite() {
+		val ex = assertThrows(MultipleFailuresError.class, new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class)::testWellBehavedPlugin);
+
+		assertThat(ex.getMessage(), allOf(startsWith("Plugin is not well-behaved"), containsString("skipped (prerequisite 'can apply plugin by id using apply(plugin: <class>) [Project]' failed)"), containsString("can execute help task [Project]"), containsString("can resolve all domain objects [Project]")));
+		assertThat(ex.getFailures(), everyItem(hasProperty("message", not(containsString("can execute help task")))));
+	}
+
+	@Test
+	void assignsSkippedChecksToTheShardOfTheirPrerequisite() {
+		for (int i = 0; i < 3; ++i) {
+			val displayNames = new WellBehavedPluginTester().pluginClass(ThrowingTestPlugin.class).shard(i, 3).stream().map(TestCase::getDisplayName).collect(Collectors.toList());
+			assertThat(displayNames.contains("can execute help task [Project]"), equalTo(displayNames.contains("can apply plugin by id using apply(plugin: <class>) [Project]")));
+			assertThat(displayNames.contains("can resolve all domain objects [Project]"), equalTo(displayNames.contains("can apply plugin by id using apply(plugin: <class>) [Project]")));
+		}
+	}
+
+	@Test
+	void executesChecksApplyingPluginWhenItApplies() {
+		val report = new TestCaseTimingReport();
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").listener(report).testWellBehavedPlugin();
+
+		assertThat(outcomeOf(report, "can execute help task [Project]"), equalTo(TestCaseTimingReport.Outcome.Passed));
+	}
+
+	private static TestCaseTimingReport.Outcome outcomeOf(TestCaseTimingReport report, String displayName) {
+		return report.getTimings().stream().filter(it -> it.getDisplayName().equals(displayName)).findFirst().orElseThrow(AssertionError::new).getOutcome();
+	}
+}
@@ -0,0 +1,47 @@
+package dev.gradleplugins.grava.testing;
+
+import dev.gradleplugins.grava.testing.fixtures.WellBehavedTestPlugin;
+import lombok.val;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.MultipleFailuresError;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProfilingWellBehavedPluginTesterIntegrationTest {
+	@Test
+	void reportsBuildProfileOfEachTestCase() {
+		val report = new TestCaseTimingReport();
+		new WellBehavedPluginTester().pluginClass(WellBehavedTestPlugin.class).qualifiedPluginId("dev.gradleplugins.gravatesting.well-behaved-plugin").profileBuilds().listener(report).testWellBehavedPlugin();
+
+		assertThat(report.getTimings(), not(empty()));
+		for (TestCaseTimingReport.TestCaseTiming timing : report.getTimings()) {
+			val profile = timing.getBuildProfile().orElseThrow(AssertionError::new);
+			assertThat(profile.getConfigurationDuration().isPresent(), is(true));
+			assertThat(profile.getTaskGraphDuration().isPresent(), is(true));
+			assertThat(profile.getPluginApplyDuration().isPresent(), is(true));
+		}
+	}
+
+	@Test
+	void failsWhenConfigurationTimeExceedsBudget() {
+		val ex = assertThrows(MultipleFailuresError.class, new WellBehavedPluginTester().pluginClass(SlowToApplyPlugin.class).configurationTimeBudget(Duration.ofMillis(100))::testWellBehavedPlugin);
+		assertThat(ex.getMessage(), allOf(startsWith("Plugin is not well-behaved"), containsString("can apply plugin by id using apply(plugin: <class>)")));
+	}
+
+	public static class SlowToApplyPlugin implements Plugin<Project> {
+		@Override
+		public void apply(Project target) {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
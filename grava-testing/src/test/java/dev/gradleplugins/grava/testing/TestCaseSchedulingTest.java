@@ -0,0 +1,136 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.MultipleFailuresError;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestCaseSchedulingTest {
+	private final ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+	private final Set<String> failing = ConcurrentHashMap.newKeySet();
+	@TempDir Path testDirectory;
+
+	@Test
+	void executesTestCasesInCollectedOrderWithoutHistory() {
+		val tester = tester("slow", "fast", "failing");
+		tester.setHistory(testDirectory.resolve("history.txt"));
+
+		assertThat(displayNamesOf(tester), contains("slow", "fast", "failing"));
+	}
+
+	@Test
+	void executesRecentlyFailedThenShortestTestCasesFirst() {
+		failing.add("failing");
+		val first = tester("slow", "fast", "failing");
+		first.setHistory(testDirectory.resolve("history.txt"));
+		assertThrows(MultipleFailuresError.class, first::executeAllTestCases);
+
+		val second = tester("slow", "fast", "failing");
+		second.setHistory(testDirectory.resolve("history.txt"));
+		assertThat(displayNamesOf(second), contains("failing", "fast", "slow"));
+	}
+
+	@Test
+	void keepsCollectedOrderForTestCasesWithoutHistory() {
+		val first = tester("slow", "fast");
+		first.setHistory(testDirectory.resolve("history.txt"));
+		first.executeAllTestCases();
+
+		val second = tester("new", "slow", "fast", "other new");
+		second.setHistory(testDirectory.resolve("history.txt"));
+		assertThat(displayNamesOf(second), contains("new", "other new", "fast", "slow"));
+	}
+
+	@Test
+	void appendsEachCompletedTestCaseToHistoryAndCompactsItWhenNextOpened() throws IOException {
+		val historyFile = testDirectory.resolve("history.txt");
+		val first = tester("slow", "fast");
+		first.setHistory(historyFile);
+		first.executeAllTestCases();
+
+		val second = tester("slow", "fast");
+		second.setHistory(historyFile);
+		val compactedLines = Files.readAllLines(historyFile);
+		assertThat(compactedLines, hasSize(3)); // header and an entry per test case
+
+		second.executeAllTestCases();
+		val lines = Files.readAllLines(historyFile);
+		assertThat(lines, hasSize(5));
+		assertThat(lines.subList(0, 3), equalTo(compactedLines));
+
+		tester("slow", "fast").setHistory(historyFile);
+		assertThat(Files.readAllLines(historyFile), hasSize(3));
+	}
+
+	@Test
+	void stopsAfterMaximumFailures() {
+		failing.addAll(Arrays.asList("a", "b", "c"));
+		val tester = tester("a", "b", "c", "d");
+		tester.setFailFast(2);
+
+		val ex = assertThrows(MultipleFailuresError.class, tester::executeAllTestCases);
+		assertThat(executed, contains("a", "b"));
+		assertThat(ex.getMessage(), startsWith("Plugin is not well-behaved (stopped after 2 failures, 2 test cases not executed)"));
+	}
+
+	@Test
+	void stopsAfterMaximumFailuresInParallel() {
+		failing.addAll(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h"));
+		val tester = tester("a", "b", "c", "d", "e", "f", "g", "h");
+		tester.setParallelism(2);
+		tester.setFailFast(1);
+
+		assertThrows(MultipleFailuresError.class, tester::executeAllTestCases);
+		assertThat(executed.size(), lessThanOrEqualTo(2));
+	}
+
+	@Test
+	void throwsExceptionForNonPositiveMaximumFailures() {
+		assertThrows(IllegalArgumentException.class, () -> tester().setFailFast(0));
+	}
+
+	private static List<String> displayNamesOf(AbstractTester tester) {
+		return tester.stream().map(TestCase::getDisplayName).collect(Collectors.toList());
+	}
+
+	private AbstractTester tester(String... displayNames) {
+		return new AbstractTester() {
+			@Override
+			protected void collectTesters(List<TestCase> testers) {
+				for (String displayName : displayNames) {
+					testers.add(new TestCase() {
+						@Override
+						public String getDisplayName() {
+							return displayName;
+						}
+
+						@Override
+						public void execute() throws Throwable {
+							executed.add(displayName);
+							if (displayName.equals("slow")) {
+								Thread.sleep(50);
+							}
+							if (failing.contains(displayName)) {
+								throw new AssertionError(displayName);
+							}
+						}
+					});
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,181 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestCaseShardingTest {
+	private static final List<String> DISPLAY_NAMES = displayNames(20);
+	private static final List<String> GROUP_NAMES = Arrays.asList("group 0", "group 1", "group 2", "group 3");
+	private final ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+	@TempDir Path testDirectory;
+
+	@Test
+	void shardsPartitionTheTestCases() {
+		val result = new ArrayList<String>();
+		for (int i = 0; i < 3; ++i) {
+			val shard = tester();
+			shard.setShard(i, 3);
+			val displayNames = shard.stream().map(TestCase::getDisplayName).collect(Collectors.toList());
+			assertThat(displayNames, not(hasSize(DISPLAY_NAMES.size())));
+			result.addAll(displayNames);
+		}
+
+		assertThat(result, containsInAnyOrder(DISPLAY_NAMES.toArray()));
+	}
+
+	@Test
+	void assignsTheSameShardsOnEveryRun() {
+		val first = tester();
+		first.setShard(1, 3);
+		val second = tester();
+		second.setShard(1, 3);
+
+		assertThat(first.stream().map(TestCase::getDisplayName).collect(Collectors.toList()), equalTo(second.stream().map(TestCase::getDisplayName).collect(Collectors.toList())));
+	}
+
+	@Test
+	void throwsExceptionForInvalidShard() {
+		assertThrows(IllegalArgumentException.class, () -> tester().setShard(0, 0));
+		assertThrows(IllegalArgumentException.class, () -> tester().setShard(3, 3));
+		assertThrows(IllegalArgumentException.class, () -> tester().setShard(-1, 3));
+	}
+
+	@Test
+	void executesEachTestCaseOnceAcrossWorkQueueConsumers() throws InterruptedException {
+		val threads = new ArrayList<Thread>();
+		for (int i = 0; i < 3; ++i) {
+			val consumer = tester();
+			consumer.setWorkQueue(testDirectory.resolve("queue"));
+			threads.add(new Thread(consumer::executeAllTestCases));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(executed, containsInAnyOrder(DISPLAY_NAMES.toArray()));
+	}
+
+	@Test
+	void doesNotExecuteTestCasesClaimedByPreviousConsumer() {
+		val first = tester();
+		first.setWorkQueue(testDirectory.resolve("queue"));
+		first.executeAllTestCases();
+		val second = tester();
+		second.setWorkQueue(testDirectory.resolve("queue"));
+		second.executeAllTestCases();
+
+		assertThat(executed, hasSize(DISPLAY_NAMES.size()));
+	}
+
+	@Test
+	void assignsTestCasesOfTheSameGroupToTheSameShard() {
+		val result = new ArrayList<String>();
+		for (int i = 0; i < 3; ++i) {
+			val shard = groupedTester(it -> { });
+			shard.setShard(i, 3);
+			val groupNames = shard.stream().map(TestCase::getGroupName).distinct().collect(Collectors.toList());
+			result.addAll(groupNames);
+		}
+
+		// Each group lands in a single shard
+		assertThat(result, containsInAnyOrder(GROUP_NAMES.toArray()));
+	}
+
+	@Test
+	void executesTestCasesOfTheSameGroupOnTheSameWorkQueueConsumer() throws InterruptedException {
+		val executedBy = new ConcurrentHashMap<String, Set<Integer>>();
+		val threads = new ArrayList<Thread>();
+		for (int i = 0; i < 3; ++i) {
+			val consumerIndex = i;
+			val consumer = groupedTester(it -> executedBy.computeIfAbsent(groupOf(it), k -> ConcurrentHashMap.newKeySet()).add(consumerIndex));
+			consumer.setWorkQueue(testDirectory.resolve("queue"));
+			threads.add(new Thread(consumer::executeAllTestCases));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(executed, containsInAnyOrder(DISPLAY_NAMES.toArray()));
+		assertThat(executedBy.keySet(), containsInAnyOrder(GROUP_NAMES.toArray()));
+		executedBy.values().forEach(it -> assertThat(it, hasSize(1)));
+	}
+
+	private AbstractTester tester() {
+		return new AbstractTester() {
+			@Override
+			protected void collectTesters(List<TestCase> testers) {
+				for (String displayName : DISPLAY_NAMES) {
+					testers.add(new TestCase() {
+						@Override
+						public String getDisplayName() {
+							return displayName;
+						}
+
+						@Override
+						public void execute() throws Throwable {
+							executed.add(displayName);
+						}
+					});
+				}
+			}
+		};
+	}
+
+	private AbstractTester groupedTester(Consumer<String> onExecute) {
+		return new AbstractTester() {
+			@Override
+			protected void collectTesters(List<TestCase> testers) {
+				for (String displayName : DISPLAY_NAMES) {
+					testers.add(new TestCase() {
+						@Override
+						public String getDisplayName() {
+							return displayName;
+						}
+
+						@Override
+						public String getGroupName() {
+							return groupOf(displayName);
+						}
+
+						@Override
+						public void execute() throws Throwable {
+							executed.add(displayName);
+							onExecute.accept(displayName);
+						}
+					});
+				}
+			}
+		};
+	}
+
+	// i.e. 4 prerequisites with 5 test cases each
+	private static String groupOf(String displayName) {
+		return "group " + DISPLAY_NAMES.indexOf(displayName) % GROUP_NAMES.size();
+	}
+
+	private static List<String> displayNames(int count) {
+		val result = new ArrayList<String>();
+		for (int i = 0; i < count; ++i) {
+			result.add("test case " + i);
+		}
+		return Collections.unmodifiableList(result);
+	}
+}
@@ -0,0 +1,182 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.MultipleFailuresError;
+import org.opentest4j.TestAbortedException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestCaseTimingReportTest {
+	private final TestCaseTimingReport report = new TestCaseTimingReport();
+	@TempDir Path testDirectory;
+
+	@Test
+	void recordsEachPhaseOfEachTestCase() {
+		tester(new SleepingTestCase("foo", 0, 20, 0), new SleepingTestCase("bar", 20, 0, 20)).executeAllTestCases();
+
+		val timings = report.getTimings();
+		assertThat(timings.stream().map(TestCaseTimingReport.TestCaseTiming::getDisplayName).collect(Collectors.toList()), contains("foo", "bar"));
+		assertThat(timings.get(0).getExecuteDuration(), greaterThanOrEqualTo(Duration.ofMillis(20)));
+		assertThat(timings.get(0).getSetUpDuration(), lessThan(Duration.ofMillis(20)));
+		assertThat(timings.get(1).getSetUpDuration(), greaterThanOrEqualTo(Duration.ofMillis(20)));
+		assertThat(timings.get(1).getTearDownDuration(), greaterThanOrEqualTo(Duration.ofMillis(20)));
+	}
+
+	@Test
+	void recordsOutcomeOfEachTestCase() {
+		val tester = tester(new SleepingTestCase("passing", 0, 0, 0), new ThrowingTestCase("failing", new AssertionError()), new ThrowingTestCase("aborted", new TestAbortedException()));
+		assertThrows(MultipleFailuresError.class, tester::executeAllTestCases);
+
+		assertThat(report.getTimings().stream().map(TestCaseTimingReport.TestCaseTiming::getOutcome).collect(Collectors.toList()),
+			contains(TestCaseTimingReport.Outcome.Passed, TestCaseTimingReport.Outcome.Failed, TestCaseTimingReport.Outcome.Aborted));
+	}
+
+	@Test
+	void recordsRetriedOperationsAfterTheTestCaseCompleted() {
+		val testCase = new SleepingTestCase("foo", 0, 0, 0);
+		tester(testCase).executeAllTestCases();
+		report.retriedOperationCompleted(testCase, "delete workspace", 3, 1_000);
+
+		val timing = report.getTimings().get(0);
+		assertThat(timing.getRetriedOperationCount(), equalTo(1));
+		assertThat(timing.getAttempts(), equalTo(3));
+		assertThat(timing.getRetriedOperationDuration(), equalTo(Duration.ofNanos(1_000)));
+	}
+
+	@Test
+	void ignoresWorkspaceDeletedOnTheFirstAttempt() {
+		val testCase = new SleepingTestCase("foo", 0, 0, 0);
+		tester(testCase).executeAllTestCases();
+		WellBehavedPluginTester.workspaceDeleted(report, testCase, 1, null, 1_000);
+
+		val timing = report.getTimings().get(0);
+		assertThat(timing.getRetriedOperationCount(), equalTo(0));
+		assertThat(timing.getAttempts(), equalTo(0));
+		assertThat(timing.getRetriedOperationDuration(), equalTo(Duration.ZERO));
+	}
+
+	@Test
+	void recordsWorkspaceDeletedAfterRetries() {
+		val testCase = new SleepingTestCase("foo", 0, 0, 0);
+		tester(testCase).executeAllTestCases();
+		WellBehavedPluginTester.workspaceDeleted(report, testCase, 3, null, 1_000);
+
+		val timing = report.getTimings().get(0);
+		assertThat(timing.getRetriedOperationCount(), equalTo(1));
+		assertThat(timing.getAttempts(), equalTo(3));
+	}
+
+	@Test
+	void recordsFailedRetriedOperationsAfterTheTestCaseCompleted() {
+		val testCase = new SleepingTestCase("foo", 0, 0, 0);
+		tester(testCase).executeAllTestCases();
+		report.retriedOperationFailed(testCase, "delete workspace", 1_000, new IOException("file held open"));
+
+		val timing = report.getTimings().get(0);
+		assertThat(timing.getFailedRetriedOperationCount(), equalTo(1));
+		assertThat(timing.getRetriedOperationDuration(), equalTo(Duration.ofNanos(1_000)));
+		assertThat(report.toString(), containsString("1 failed"));
+	}
+
+	@Test
+	void ordersSlowestTestCasesFirst() {
+		tester(new SleepingTestCase("fast", 0, 0, 0), new SleepingTestCase("slow", 0, 30, 0), new SleepingTestCase("medium", 0, 10, 0)).executeAllTestCases();
+
+		assertThat(report.getSlowest(2).stream().map(TestCaseTimingReport.TestCaseTiming::getDisplayName).collect(Collectors.toList()), contains("slow", "medium"));
+	}
+
+	@Test
+	void writesTabSeparatedReport() throws IOException {
+		tester(new SleepingTestCase("foo", 0, 0, 0), new SleepingTestCase("bar", 0, 0, 0)).executeAllTestCases();
+
+		val file = testDirectory.resolve("reports/timings.tsv");
+		report.writeTo(file);
+		val lines = Files.readAllLines(file);
+		assertThat(lines, hasSize(3));
+		assertThat(lines.get(1), startsWith("foo\tPassed\t"));
+		assertThat(lines.get(2).split("\t", -1).length, equalTo(lines.get(0).split("\t", -1).length));
+	}
+
+	@Test
+	void keepsDisplayNameOfInstrumentedTestCases() {
+		assertThat(tester(new SleepingTestCase("foo", 0, 0, 0)).stream().map(TestCase::getDisplayName).collect(Collectors.toList()), contains("foo"));
+	}
+
+	private AbstractTester tester(TestCase... testCases) {
+		val result = new AbstractTester() {
+			@Override
+			protected void collectTesters(List<TestCase> testers) {
+				for (TestCase testCase : testCases) {
+					testers.add(testCase);
+				}
+			}
+		};
+		result.addTestCaseListener(report);
+		return result;
+	}
+
+	private static final class SleepingTestCase implements TestCase {
+		private final String displayName;
+		private final long setUpMillis;
+		private final long executeMillis;
+		private final long tearDownMillis;
+
+		private SleepingTestCase(String displayName, long setUpMillis, long executeMillis, long tearDownMillis) {
+			this.displayName = displayName;
+			this.setUpMillis = setUpMillis;
+			this.executeMillis = executeMillis;
+			this.tearDownMillis = tearDownMillis;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return displayName;
+		}
+
+		@Override
+		public void setUp() throws Throwable {
+			Thread.sleep(setUpMillis);
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			Thread.sleep(executeMillis);
+		}
+
+		@Override
+		public void tearDown() throws Throwable {
+			Thread.sleep(tearDownMillis);
+		}
+	}
+
+	private static final class ThrowingTestCase implements TestCase {
+		private final String displayName;
+		private final Throwable failure;
+
+		private ThrowingTestCase(String displayName, Throwable failure) {
+			this.displayName = displayName;
+			this.failure = failure;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return displayName;
+		}
+
+		@Override
+		public void execute() throws Throwable {
+			throw failure;
+		}
+	}
+}
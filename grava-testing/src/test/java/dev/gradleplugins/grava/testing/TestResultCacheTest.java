@@ -0,0 +1,100 @@
+package dev.gradleplugins.grava.testing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TestResultCacheTest {
+	@TempDir Path testDirectory;
+
+	@Test
+	void remembersPassedTestCasesAcrossInstances() throws IOException {
+		val classpath = classpath("plugin.jar", "foo");
+		cache(classpath, "gradleVersion=6.8").markPassed("can execute help task [Project]");
+
+		assertThat(cache(classpath, "gradleVersion=6.8").isPassed("can execute help task [Project]"), is(true));
+		assertThat(cache(classpath, "gradleVersion=6.8").isPassed("can execute tasks task [Project]"), is(false));
+	}
+
+	@Test
+	void forgetsFailedTestCases() throws IOException {
+		val classpath = classpath("plugin.jar", "foo");
+		cache(classpath, "gradleVersion=6.8").markPassed("can execute help task [Project]");
+		cache(classpath, "gradleVersion=6.8").markFailed("can execute help task [Project]");
+
+		assertThat(cache(classpath, "gradleVersion=6.8").isPassed("can execute help task [Project]"), is(false));
+	}
+
+	@Test
+	void doesNotReusePassedTestCasesWhenClasspathContentChanges() throws IOException {
+		val classpath = classpath("plugin.jar", "foo");
+		cache(classpath, "gradleVersion=6.8").markPassed("can execute help task [Project]");
+
+		Files.write(classpath.get(0).toPath(), "bar".getBytes(UTF_8));
+		assertThat(cache(classpath, "gradleVersion=6.8").isPassed("can execute help task [Project]"), is(false));
+	}
+
+	@Test
+	void doesNotReusePassedTestCasesWhenInputsChange() throws IOException {
+		val classpath = classpath("plugin.jar", "foo");
+		cache(classpath, "gradleVersion=6.8").markPassed("can execute help task [Project]");
+
+		assertThat(cache(classpath, "gradleVersion=6.7").isPassed("can execute help task [Project]"), is(false));
+	}
+
+	@Test
+	void hashesClasspathDirectoriesByContent() throws IOException {
+		val classes = Files.createDirectories(testDirectory.resolve("classes/com/example"));
+		Files.write(classes.resolve("Plugin.class"), "foo".getBytes(UTF_8));
+		val classpath = Collections.singletonList(testDirectory.resolve("classes").toFile());
+		val cache = cache(classpath, "gradleVersion=6.8");
+
+		assertThat(cache(classpath, "gradleVersion=6.8").getDirectory(), equalTo(cache.getDirectory()));
+		Files.write(classes.resolve("Plugin.class"), "bar".getBytes(UTF_8));
+		assertThat(cache(classpath, "gradleVersion=6.8").getDirectory(), not(equalTo(cache.getDirectory())));
+	}
+
+	@Test
+	void deletesCacheDirectoriesUnusedForAWeek() throws IOException {
+		val classpath = classpath("plugin.jar", "foo");
+		val unused = cache(classpath, "gradleVersion=6.7").getDirectory();
+		Files.setLastModifiedTime(unused, FileTime.from(Instant.now().minus(Duration.ofDays(8))));
+
+		cache(classpath, "gradleVersion=6.8");
+		assertThat(Files.exists(unused), is(false));
+	}
+
+	@Test
+	void keepsRecentlyUsedCacheDirectories() throws IOException {
+		val classpath = classpath("plugin.jar", "foo");
+		val recentlyUsed = cache(classpath, "gradleVersion=6.7");
+		recentlyUsed.markPassed("can execute help task [Project]");
+		Files.setLastModifiedTime(recentlyUsed.getDirectory(), FileTime.from(Instant.now().minus(Duration.ofDays(6))));
+
+		cache(classpath, "gradleVersion=6.8");
+		assertThat(recentlyUsed.isPassed("can execute help task [Project]"), is(true));
+	}
+
+	private TestResultCache cache(List<File> classpath, String... inputs) {
+		return TestResultCache.of(testDirectory.resolve("cache"), classpath, Arrays.asList(inputs));
+	}
+
+	private List<File> classpath(String name, String content) throws IOException {
+		return Collections.singletonList(Files.write(testDirectory.resolve(name), content.getBytes(UTF_8)).toFile());
+	}
+}
@@ -0,0 +1,82 @@
+package dev.gradleplugins.grava.testing.file;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class BackgroundDirectoryDeleterTest {
+	private final TestNameTestDirectoryProvider testDirectory = TestNameTestDirectoryProvider.newInstance(BackgroundDirectoryDeleterTest.class);
+
+	@AfterEach
+	void cleanup() throws IOException {
+		testDirectory.cleanup();
+	}
+
+	@Test
+	void freesDirectoryLocationBeforeDeletionCompletes() throws Exception {
+		val directory = testDirectory.createDirectory("foo");
+		Files.createDirectories(directory.resolve(".gradle/6.8/fileHashes"));
+		Files.createFile(directory.resolve("build.gradle"));
+
+		val deletion = BackgroundDirectoryDeleter.getInstance().delete(directory);
+		assertThat(Files.exists(directory), is(false));
+
+		deletion.get(10, TimeUnit.SECONDS);
+		assertThat(siblingsOf(directory), empty());
+	}
+
+	@Test
+	void doesNotCollideWithPendingTombstoneOfReusedDirectory() throws Exception {
+		val directory = testDirectory.createDirectory("foo");
+		val staleTombstone = Files.createDirectories(directory.resolveSibling("foo.tombstone"));
+		Files.createFile(staleTombstone.resolve("build.gradle"));
+		Files.createFile(directory.resolve("build.gradle"));
+
+		val deletion = BackgroundDirectoryDeleter.getInstance().delete(directory);
+		assertThat(Files.exists(directory), is(false));
+
+		deletion.get(10, TimeUnit.SECONDS);
+		assertThat(Files.exists(staleTombstone.resolve("build.gradle")), is(true));
+	}
+
+	@Test
+	void deletesDirectoryInlineOnceDrained() throws Exception {
+		val subject = new BackgroundDirectoryDeleter();
+		subject.drain();
+		val directory = testDirectory.createDirectory("foo");
+		Files.createFile(directory.resolve("build.gradle"));
+
+		val deletion = subject.delete(directory);
+		assertThat(deletion.isDone(), is(true));
+		assertThat(deletion.get(), equalTo(1));
+		assertThat(siblingsOf(directory), empty());
+	}
+
+	@Test
+	void cleansUpTestDirectoryInBackground() throws Exception {
+		val directory = testDirectory.createDirectory("bar");
+
+		testDirectory.cleanupInBackground().get(10, TimeUnit.SECONDS);
+		assertThat(Files.exists(directory), is(false));
+		assertThat(Files.exists(testDirectory.getTestDirectory()), is(false));
+	}
+
+	private static List<Path> siblingsOf(Path directory) throws IOException {
+		try (Stream<Path> stream = Files.list(directory.getParent())) {
+			return stream.filter(it -> it.getFileName().toString().startsWith(directory.getFileName().toString())).collect(Collectors.toList());
+		}
+	}
+}
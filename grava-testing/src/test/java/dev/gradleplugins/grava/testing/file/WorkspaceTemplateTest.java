@@ -0,0 +1,56 @@
+package dev.gradleplugins.grava.testing.file;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class WorkspaceTemplateTest {
+	private final TestNameTestDirectoryProvider testDirectory = TestNameTestDirectoryProvider.newInstance(WorkspaceTemplateTest.class);
+	private final WorkspaceTemplate subject = WorkspaceTemplate.builder().file("init.gradle", "// init\n").file("a/build.gradle", "").directory("b").build();
+
+	@AfterEach
+	void cleanup() throws IOException {
+		testDirectory.cleanup();
+	}
+
+	@Test
+	void materializesFilesAndDirectories() throws IOException {
+		subject.materialize(testDirectory.getTestDirectory());
+
+		assertThat(content(testDirectory.file("init.gradle")), equalTo("// init\n"));
+		assertThat(Files.isRegularFile(testDirectory.file("a", "build.gradle")), is(true));
+		assertThat(Files.isDirectory(testDirectory.file("b")), is(true));
+	}
+
+	@Test
+	void sharesTemplateDirectoryForSameContent() {
+		assertThat(WorkspaceTemplate.builder().file("init.gradle", "// init\n").file("a/build.gradle", "").directory("b").build().getDirectory(),
+			equalTo(subject.getDirectory()));
+	}
+
+	@Test
+	void doesNotModifyTemplateWhenUnsharedFileIsModified() throws IOException {
+		subject.materialize(testDirectory.getTestDirectory());
+
+		val file = testDirectory.file("init.gradle");
+		WorkspaceTemplate.unshare(file);
+		Files.write(file, "apply plugin: 'foo'\n".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+		assertThat(content(file), equalTo("// init\napply plugin: 'foo'\n"));
+		assertThat(content(subject.getDirectory().resolve("init.gradle")), equalTo("// init\n"));
+	}
+
+	private static String content(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), UTF_8);
+	}
+}
@@ -0,0 +1,30 @@
+package dev.gradleplugins.grava.testing.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+class HashUtilsTest {
+	@Test
+	void shortHashIsPrefixOfSha256() {
+		// SHA-256 of "abc" is ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad
+		assertThat(HashUtils.shortHash("abc"), equalTo("ba7816bf8f01cfea"));
+	}
+
+	@Test
+	void hashesDigestContent() {
+		val digest = HashUtils.newDigest();
+		digest.update("ab".getBytes(UTF_8));
+		digest.update("c".getBytes(UTF_8));
+		assertThat(HashUtils.shortHash(digest), equalTo(HashUtils.shortHash("abc")));
+	}
+
+	@Test
+	void differentContentHashesDifferently() {
+		assertThat(HashUtils.shortHash("abc"), not(equalTo(HashUtils.shortHash("abd"))));
+	}
+}